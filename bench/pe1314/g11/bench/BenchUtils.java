@@ -0,0 +1,54 @@
+package pe1314.g11.bench;
+
+import java.io.IOException;
+import java.util.Random;
+
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+import pe1314.g11.pr2.P2Problem;
+import pe1314.g11.sga.BinaryChromosome;
+
+/**
+ * Utilities shared by the benchmarks.
+ *
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+/* package */final class BenchUtils {
+
+    /** Seed used by every benchmark, so all of them work on the same data on every run */
+    /* package */static final long SEED = 0x5EED1314L;
+
+    private BenchUtils () {
+    }
+
+    /**
+     * Loads one of the hospital problems bundled as resources.
+     *
+     * @param name Name of the data file, without extension
+     * @return The loaded problem
+     * @throws IOException if the file cannot be read
+     */
+    /* package */static P2Problem hospitalProblem (final String name) throws IOException {
+        return P2Problem.readFromURL(BenchUtils.class.getResource("/pe1314/g11/pr2/" + name + ".dat"));
+    }
+
+    /**
+     * Creates a population of binary chromosomes with random fitness values already known, so the benchmarked steps
+     * never evaluate anything.
+     *
+     * @param problem Problem that creates the chromosomes
+     * @param size Size of the population
+     * @param random Random generator to use
+     * @return A new population
+     */
+    /* package */static Population<BinaryChromosome> evaluatedPopulation (
+        final Problem<?,BinaryChromosome> problem, final int size, final Random random)
+    {
+        final Population<BinaryChromosome> population = new Population<>(problem, size);
+        for (int i = 0; i < size; i++) {
+            population.add(problem.random(random), random.nextDouble() * 100.0);
+        }
+        return population;
+    }
+}
@@ -0,0 +1,86 @@
+package pe1314.g11.bench;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pe1314.g11.sga.BinaryChromosome;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Benchmarks of the basic operations of {@link BinaryChromosome}.
+ *
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryChromosomeBenchmark {
+
+    /** Number of precomputed random places, a power of two */
+    private static final int PLACES = 1024;
+
+    /** Length of the chromosomes */
+    @Param({ "16", "64", "256", "4096" })
+    public int length;
+
+    /** Number of bits decoded by {@link #toPartialBigInteger} */
+    @Param({ "16" })
+    public int geneLength;
+
+    private BinaryChromosome first;
+    private BinaryChromosome second;
+    private int[] places;
+    private int next;
+
+    @Setup
+    public void setup () {
+        final Random random = new XorShiftRandom(BenchUtils.SEED);
+
+        first = BinaryChromosome.newRandom(length, random);
+        second = BinaryChromosome.newRandom(length, random);
+
+        places = new int[PLACES];
+        for (int i = 0; i < PLACES; i++) {
+            places[i] = random.nextInt(length - 1);
+        }
+    }
+
+    /** @return A precomputed random place, valid for both mutation and combination */
+    private int nextPlace () {
+        next = (next + 1) & (PLACES - 1);
+        return places[next];
+    }
+
+    @Benchmark
+    public BinaryChromosome getMutated () {
+        return first.getMutated(0, nextPlace(), 1);
+    }
+
+    @Benchmark
+    public BinaryChromosome getCombined () {
+        return first.getCombined(second, 0, nextPlace(), 0);
+    }
+
+    @Benchmark
+    public BigInteger toPartialBigInteger () {
+        final int gene = Math.min(geneLength, length);
+        return first.toPartialBigInteger(nextPlace() % (length - gene + 1), gene);
+    }
+}
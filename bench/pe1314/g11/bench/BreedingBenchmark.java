@@ -0,0 +1,123 @@
+package pe1314.g11.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pe1314.g11.Population;
+import pe1314.g11.SolverStep;
+import pe1314.g11.pr1.P1F1Problem;
+import pe1314.g11.sga.BinaryChromosome;
+import pe1314.g11.sga.BreedingStep;
+import pe1314.g11.sga.CombinationStep;
+import pe1314.g11.sga.GeometricMutationStep;
+import pe1314.g11.sga.TournamentSelectionStep;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Benchmarks of breeding a whole generation of binary chromosomes, either with a {@link BreedingStep} or with the
+ * separate selection, combination and mutation steps it replaces, on populations whose fitness is already known.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BreedingBenchmark {
+
+    /** Probability of combining every pair of parents */
+    private static final double CROSSOVER = 0.6;
+
+    /** Size of the tournaments */
+    private static final int TOURNAMENT = 3;
+
+    /** How the generation is bred: <tt>separate</tt> steps or a single <tt>fused</tt> one */
+    @Param({ "separate", "fused" })
+    public String breeding;
+
+    /** Combination type, as in {@link BinaryChromosome} */
+    @Param({ "0", "1" })
+    public int combination;
+
+    /** Probability of mutating every bit */
+    @Param({ "0.001", "0.05" })
+    public double mutation;
+
+    /** Length of the chromosomes */
+    @Param({ "64", "4096" })
+    public int length;
+
+    /** Size of the population */
+    @Param({ "1000" })
+    public int size;
+
+    private P1F1Problem problem;
+    private SolverStep<Double,BinaryChromosome>[] steps;
+    private Population<BinaryChromosome> input;
+    private Population<BinaryChromosome> current;
+    private Population<BinaryChromosome> spare;
+    private Random random;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup () {
+        switch (breeding) {
+            case "separate":
+                steps = new SolverStep[] {
+                    new TournamentSelectionStep<Double,BinaryChromosome>(TOURNAMENT),
+                    new CombinationStep<Double,BinaryChromosome>(CROSSOVER, combination),
+                    new GeometricMutationStep<Double,BinaryChromosome>(mutation, 0) };
+                break;
+            case "fused":
+                steps = new SolverStep[] {
+                    new BreedingStep<Double,BinaryChromosome>(
+                        BreedingStep.tournament(TOURNAMENT),
+                        BreedingStep.<BinaryChromosome> combination(CROSSOVER, combination),
+                        BreedingStep.<BinaryChromosome> pointMutation(mutation, 0)) };
+                break;
+            default:
+                throw new IllegalArgumentException("unknown breeding: " + breeding);
+        }
+
+        random = new XorShiftRandom(BenchUtils.SEED);
+        problem = new P1F1Problem(0.001);
+
+        // The chromosomes are not the ones of the problem, but they are never evaluated
+        final Population<BinaryChromosome> population = new Population<>(problem, size);
+        for (int i = 0; i < size; i++) {
+            population.add(BinaryChromosome.newRandom(length, random), random.nextDouble() * 100.0);
+        }
+
+        input = Population.unmodifiable(population);
+        current = new Population<>(problem, size);
+        spare = new Population<>(problem, size);
+    }
+
+    @Benchmark
+    public Population<BinaryChromosome> breed () {
+        // Populations are swapped between steps as a solver does
+        Population<BinaryChromosome> in = input;
+        for (final SolverStep<Double,BinaryChromosome> step : steps) {
+            final Population<BinaryChromosome> out = (in == current) ? spare : current;
+            out.clear();
+            step.apply(problem, in, random, 0, out);
+            in = out;
+        }
+        return in;
+    }
+}
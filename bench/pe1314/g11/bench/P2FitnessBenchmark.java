@@ -0,0 +1,64 @@
+package pe1314.g11.bench;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pe1314.g11.pr2.P2Problem;
+import pe1314.g11.sga.PermutationChromosome;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Benchmark of the fitness function of the hospital problems, {@link P2Problem#fitness}.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class P2FitnessBenchmark {
+
+    /** Number of precomputed random chromosomes, a power of two */
+    private static final int CHROMOSOMES = 256;
+
+    /** Data file of the problem */
+    @Param({ "ajuste", "tai12", "tai15", "tai30" })
+    public String dataset;
+
+    private P2Problem problem;
+    private PermutationChromosome[] chromosomes;
+    private int next;
+
+    @Setup
+    public void setup () throws IOException {
+        problem = BenchUtils.hospitalProblem(dataset);
+
+        final Random random = new XorShiftRandom(BenchUtils.SEED);
+        chromosomes = new PermutationChromosome[CHROMOSOMES];
+        for (int i = 0; i < CHROMOSOMES; i++) {
+            chromosomes[i] = problem.random(random);
+        }
+    }
+
+    @Benchmark
+    public double fitness () {
+        next = (next + 1) & (CHROMOSOMES - 1);
+        return problem.fitness(chromosomes[next]);
+    }
+}
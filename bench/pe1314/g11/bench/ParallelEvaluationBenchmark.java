@@ -0,0 +1,89 @@
+package pe1314.g11.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pe1314.g11.Population;
+import pe1314.g11.pr2.P2Problem;
+import pe1314.g11.sga.PermutationChromosome;
+import pe1314.g11.util.ParallelEvaluationStep;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Benchmark of a {@link ParallelEvaluationStep} evaluating a whole population of the hospital problems, on pools of
+ * different sizes, to measure how the evaluation of a generation scales with the number of cores.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelEvaluationBenchmark {
+
+    /** Threads of the pool */
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    /** Size of the population */
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private P2Problem problem;
+    private ForkJoinPool pool;
+    private ParallelEvaluationStep<List<Integer>,PermutationChromosome> step;
+    private PermutationChromosome[] chromosomes;
+    private Population<PermutationChromosome> output;
+
+    @Setup
+    public void setup () throws IOException {
+        problem = BenchUtils.hospitalProblem("tai30");
+        pool = new ForkJoinPool(threads);
+        step = new ParallelEvaluationStep<>(pool);
+
+        final Random random = new XorShiftRandom(BenchUtils.SEED);
+        chromosomes = new PermutationChromosome[size];
+        for (int i = 0; i < size; i++) {
+            chromosomes[i] = problem.random(random);
+        }
+
+        output = new Population<>(problem, size);
+    }
+
+    @TearDown
+    public void tearDown () {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Population<PermutationChromosome> apply () {
+        // A new input every time, so no fitness is known yet
+        final Population<PermutationChromosome> input = new Population<>(problem, size);
+        for (final PermutationChromosome chromosome : chromosomes) {
+            input.add(chromosome);
+        }
+
+        output.clear();
+        step.apply(problem, Population.unmodifiable(input), null, 0, output);
+        return output;
+    }
+}
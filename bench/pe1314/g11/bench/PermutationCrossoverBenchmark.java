@@ -0,0 +1,99 @@
+package pe1314.g11.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pe1314.g11.sga.PermutationChromosome;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Benchmarks of every crossover of {@link PermutationChromosome}, with the places chosen the same way as
+ * {@link pe1314.g11.sga.CombinationStep CombinationStep} does.
+ *
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermutationCrossoverBenchmark {
+
+    /** Number of precomputed random places, a power of two */
+    private static final int PLACES = 1024;
+
+    /** Length of the permutations */
+    @Param({ "12", "30", "100", "256" })
+    public int size;
+
+    /** Crossover type */
+    @Param({ "PMX", "OX", "CX", "ORDCOD", "RECOMB" })
+    public String crossover;
+
+    private int type;
+    private PermutationChromosome first;
+    private PermutationChromosome second;
+    private int[] places;
+    private int[] lengths;
+    private int next;
+
+    @Setup
+    public void setup () {
+        switch (crossover) {
+            case "PMX":
+                type = PermutationChromosome.COMBINATION_PMX;
+                break;
+            case "OX":
+                type = PermutationChromosome.COMBINATION_OX;
+                break;
+            case "CX":
+                type = PermutationChromosome.COMBINATION_CX;
+                break;
+            case "ORDCOD":
+                type = PermutationChromosome.COMBINATION_ORDCOD;
+                break;
+            case "RECOMB":
+                type = PermutationChromosome.COMBINATION_RECOMB;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown crossover: " + crossover);
+        }
+
+        final Random random = new XorShiftRandom(BenchUtils.SEED);
+        first = PermutationChromosome.newRandom(size, random);
+        second = PermutationChromosome.newRandom(size, random);
+
+        places = new int[PLACES];
+        lengths = new int[PLACES];
+        for (int i = 0; i < PLACES; i++) {
+            final int place = random.nextInt(first.getCombinationPlaces());
+            int p2 = place;
+            while (place == p2) {
+                p2 = random.nextInt(first.getCombinationPlaces());
+            }
+
+            places[i] = place;
+            lengths[i] = p2 - place;
+        }
+    }
+
+    @Benchmark
+    public PermutationChromosome getCombined () {
+        next = (next + 1) & (PLACES - 1);
+        return first.getCombined(second, type, places[next], lengths[next]);
+    }
+}
@@ -0,0 +1,92 @@
+package pe1314.g11.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pe1314.g11.Population;
+import pe1314.g11.SolverStep;
+import pe1314.g11.pr1.P1F1Problem;
+import pe1314.g11.sga.BinaryChromosome;
+import pe1314.g11.sga.RankingSelectionStep;
+import pe1314.g11.sga.RouletteSelectionStep;
+import pe1314.g11.sga.StochasticUniversalSamplingStep;
+import pe1314.g11.sga.TournamentSelectionStep;
+import pe1314.g11.sga.TruncationSelectionStep;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Benchmarks of a whole application of every selection step, on populations whose fitness is already known.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectionBenchmark {
+
+    /** Selection type */
+    @Param({ "roulette", "tournament", "ranking", "sus", "truncation" })
+    public String selection;
+
+    /** Size of the population */
+    @Param({ "100", "1000", "10000", "100000" })
+    public int size;
+
+    private P1F1Problem problem;
+    private SolverStep<Double,BinaryChromosome> step;
+    private Population<BinaryChromosome> input;
+    private Population<BinaryChromosome> output;
+    private Random random;
+
+    @Setup
+    public void setup () {
+        switch (selection) {
+            case "roulette":
+                step = new RouletteSelectionStep<>();
+                break;
+            case "tournament":
+                step = new TournamentSelectionStep<>(8);
+                break;
+            case "ranking":
+                step = new RankingSelectionStep<>();
+                break;
+            case "sus":
+                step = new StochasticUniversalSamplingStep<>();
+                break;
+            case "truncation":
+                // Half of the population survives, as in a (mu, lambda) strategy with lambda = 2 mu
+                step = new TruncationSelectionStep<>(size / 2);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown selection: " + selection);
+        }
+
+        random = new XorShiftRandom(BenchUtils.SEED);
+        problem = new P1F1Problem(0.001);
+        input = Population.unmodifiable(BenchUtils.evaluatedPopulation(problem, size, random));
+        output = new Population<>(problem, size);
+    }
+
+    @Benchmark
+    public Population<BinaryChromosome> apply () {
+        output.clear();
+        step.apply(problem, input, random, 0, output);
+        return output;
+    }
+}
@@ -0,0 +1,81 @@
+package pe1314.g11.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pe1314.g11.pr3.LispChromosome;
+import pe1314.g11.pr3.SpaceInvadersProblem;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Benchmark of the fitness functions of the Space Invaders problems, {@link SpaceInvadersProblem#fitness}.
+ * <p>
+ * The problem caches the fitness of the chromosomes it evaluates, so the <tt>uncached</tt> benchmark evaluates every
+ * chromosome on a new problem, and the <tt>cached</tt> one measures the cache alone.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpaceInvadersFitnessBenchmark {
+
+    /** Number of precomputed random chromosomes, a power of two */
+    private static final int CHROMOSOMES = 64;
+
+    /** Fitness function, as numbered on the GUI */
+    @Param({ "0", "1" })
+    public int function;
+
+    /** Maximum depth of the generated programs */
+    @Param({ "2", "4" })
+    public int depth;
+
+    private SpaceInvadersProblem problem;
+    private LispChromosome[] chromosomes;
+    private int next;
+
+    @Setup
+    public void setup () {
+        problem = newProblem();
+
+        final Random random = new XorShiftRandom(BenchUtils.SEED);
+        chromosomes = new LispChromosome[CHROMOSOMES];
+        for (int i = 0; i < CHROMOSOMES; i++) {
+            chromosomes[i] = problem.random(random);
+            problem.fitness(chromosomes[i]);
+        }
+    }
+
+    private SpaceInvadersProblem newProblem () {
+        return new SpaceInvadersProblem(function, false, depth, -1);
+    }
+
+    @Benchmark
+    public double uncached () {
+        next = (next + 1) & (CHROMOSOMES - 1);
+        return newProblem().fitness(chromosomes[next]);
+    }
+
+    @Benchmark
+    public double cached () {
+        next = (next + 1) & (CHROMOSOMES - 1);
+        return problem.fitness(chromosomes[next]);
+    }
+}
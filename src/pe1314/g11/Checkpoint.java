@@ -0,0 +1,444 @@
+package pe1314.g11;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import pe1314.g11.util.SplitMixRandom;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Binary snapshots of a running {@link Solver}, written periodically so a process can be resumed from the last one
+ * with the exact same random stream.
+ * <p>
+ * A snapshot is written to a temporary file which then replaces the previous one, so a process killed while writing
+ * never leaves a broken snapshot behind. All values are stored in big-endian order:
+ * 
+ * <pre>
+ * int    magic, version, generation
+ * byte   random generator kind: 0 for a {@link XorShiftRandom}, 1 for a {@link SplitMixRandom}
+ * long   random generator state
+ * double best fitness
+ * byte   whether there is a best chromosome, followed by it
+ * int    number of summaries, followed by (int generation, int size, double max, min, average, deviation) each
+ * pop    the population
+ * int    number of stateful steps, followed by the population of each
+ * 
+ * pop:   int size (-1 for none), followed by (byte evaluated, double fitness, chromosome) each
+ * </pre>
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values of the solved problem
+ * @param <C> Type of the chromosomes to be processed
+ */
+/* package */final class Checkpoint<V, C extends Chromosome<C>> {
+
+    /** Marker at the start of every snapshot */
+    private static final int MAGIC = 0x50457653;
+
+    /** Version of the snapshot format */
+    private static final int VERSION = 2;
+
+    /** Version of the snapshot format without the random generator kind, always a {@link XorShiftRandom} */
+    private static final int VERSION_XORSHIFT = 1;
+
+    private static final byte KIND_XORSHIFT = 0;
+    private static final byte KIND_SPLITMIX = 1;
+
+    /** Bytes used by every summary */
+    private static final int SUMMARY_BYTES = 4 + 4 + 8 * 4;
+
+    /** Size of the buffer used to write snapshots */
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    /** Number of summaries written at once, as many as fit in a chunk */
+    private static final int CHUNK_SUMMARIES = CHUNK_BYTES / SUMMARY_BYTES;
+
+    /** File the snapshots are written to */
+    private final Path file;
+
+    /** Number of generations between snapshots */
+    /* package */final int interval;
+
+    /** Codec of the chromosomes */
+    private final ChromosomeCodec<C> codec;
+
+    /**
+     * @param file File the snapshots are written to
+     * @param interval Number of generations between snapshots
+     * @param codec Codec of the chromosomes
+     */
+    /* package */Checkpoint (final Path file, final int interval, final ChromosomeCodec<C> codec) {
+        this.file = file;
+        this.interval = interval;
+        this.codec = codec;
+    }
+
+    /**
+     * @param random A random generator
+     * @return Whether the state of <tt>random</tt> can be saved on snapshots
+     */
+    /* package */static boolean supports (final Random random) {
+        return random instanceof XorShiftRandom || random instanceof SplitMixRandom;
+    }
+
+    /**
+     * Writes a snapshot of a solving process, replacing the previous one. The snapshot is written in chunks of at most
+     * {@link #CHUNK_BYTES} bytes (or a single chromosome, if larger), so writing it takes a bounded amount of heap
+     * whatever the number of traced generations.
+     * 
+     * @param gen Number of generations processed
+     * @param random Random generator of the process
+     * @param population Population after the last generation
+     * @param trace Trace of the process
+     * @param steps Steps of the solver
+     * @throws IOException if the snapshot could not be written
+     */
+    /* package */void write (
+        final int gen, final Random random, final Population<C> population, final SolverTrace<V,C> trace,
+        final List<SolverStep<V,C>> steps) throws IOException
+    {
+        final C best = trace.getBestSeen();
+        final List<Population<C>> states = new ArrayList<Population<C>>();
+        for (final SolverStep<V,C> step : steps) {
+            if (step instanceof StatefulStep) {
+                states.add(((StatefulStep<V,C>) step).getState());
+            }
+        }
+
+        // Write everything to a temporary file and then replace the old snapshot
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel =
+            FileChannel.open(
+                temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            final Output out = new Output(channel);
+
+            ByteBuffer buffer = out.reserve(4 + 4 + 4 + 1 + 8 + 8 + 1);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(gen);
+            if (random instanceof SplitMixRandom) {
+                buffer.put(KIND_SPLITMIX);
+                buffer.putLong(((SplitMixRandom) random).getState());
+            } else {
+                buffer.put(KIND_XORSHIFT);
+                buffer.putLong(((XorShiftRandom) random).getState());
+            }
+
+            buffer.putDouble(trace.getBestSeenFitness());
+            buffer.put((byte) (best == null ? 0 : 1));
+            if (best != null) {
+                codec.encode(best, out.reserve(codec.size(best)));
+            }
+
+            // Summaries are streamed from the trace a chunk at a time, as most of them may be spilled to disk
+            final int generations = trace.getGenerations();
+            out.reserve(4).putInt(generations);
+            for (int from = 0; from < generations; from += CHUNK_SUMMARIES) {
+                final int to = Math.min(generations, from + CHUNK_SUMMARIES);
+                final ByteBuffer summaries = out.reserve((to - from) * SUMMARY_BYTES);
+                trace.visit(from, to, new SolverTrace.Visitor() {
+                    @Override
+                    public void generation (
+                        final int summaryGen, final int populationSize, final double max, final double min,
+                        final double avg, final double stdev)
+                    {
+                        summaries.putInt(summaryGen);
+                        summaries.putInt(populationSize);
+                        summaries.putDouble(max);
+                        summaries.putDouble(min);
+                        summaries.putDouble(avg);
+                        summaries.putDouble(stdev);
+                    }
+                });
+            }
+
+            encode(population, out);
+
+            out.reserve(4).putInt(states.size());
+            for (final Population<C> state : states) {
+                encode(state, out);
+            }
+
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot, restoring the state of the stateful steps of the solver. The snapshot is read in chunks of
+     * {@link #CHUNK_BYTES} bytes (or a single chromosome, if larger), like it is written.
+     * 
+     * @param from File to read the snapshot from
+     * @param problem Problem being solved
+     * @param steps Steps of the solver
+     * @param trace Empty trace on which the traced generations are restored
+     * @return The state of the process when the snapshot was written
+     * @throws IOException if the snapshot could not be read, is corrupt or does not match the solver steps
+     */
+    /* package */Restored<V,C> read (
+        final Path from, final Problem<V,C> problem, final List<SolverStep<V,C>> steps, final SolverTrace<V,C> trace)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(from, StandardOpenOption.READ)) {
+            final Input in = new Input(channel);
+
+            ByteBuffer buffer = in.require(4 + 4);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a checkpoint: " + from);
+            }
+            final int version = buffer.getInt();
+            if (version != VERSION && version != VERSION_XORSHIFT) {
+                throw new IOException("unsupported checkpoint version (" + version + "): " + from);
+            }
+
+            buffer = in.require(4 + 1 + 8 + 8 + 1);
+            final int gen = buffer.getInt();
+            final byte kind = (version == VERSION_XORSHIFT) ? KIND_XORSHIFT : buffer.get();
+            final Random random;
+            if (kind == KIND_SPLITMIX) {
+                random = new SplitMixRandom(buffer.getLong());
+            } else if (kind == KIND_XORSHIFT) {
+                random = new XorShiftRandom(buffer.getLong());
+            } else {
+                throw new IOException("unknown random generator kind (" + kind + "): " + from);
+            }
+
+            final double bestFitness = buffer.getDouble();
+            final C best = (buffer.get() != 0) ? in.decode(codec) : null;
+
+            trace.restore(best, bestFitness);
+            final int numSummaries = in.require(4).getInt();
+            for (int i = 0; i < numSummaries; i++) {
+                buffer = in.require(SUMMARY_BYTES);
+                if (buffer.getInt() != i) {
+                    throw new IOException("corrupt checkpoint: " + from);
+                }
+                trace.restore(buffer.getInt(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                    buffer.getDouble());
+            }
+
+            final Population<C> population = decode(problem, in);
+
+            // Restore the stateful steps, in order
+            final int numStates = in.require(4).getInt();
+            int state = 0;
+            for (final SolverStep<V,C> step : steps) {
+                if (step instanceof StatefulStep) {
+                    if (state++ >= numStates) {
+                        throw new IOException("checkpoint does not match the solver steps: " + from);
+                    }
+                    ((StatefulStep<V,C>) step).setState(decode(problem, in));
+                }
+            }
+            if (state != numStates || !in.atEnd()) {
+                throw new IOException("checkpoint does not match the solver steps: " + from);
+            }
+
+            return new Restored<V,C>(gen, random, population, trace);
+
+        } catch (final BufferUnderflowException | IllegalArgumentException exc) {
+            throw new IOException("corrupt checkpoint: " + from, exc);
+        }
+    }
+
+    private void encode (final Population<C> population, final Output out) throws IOException {
+        if (population == null) {
+            out.reserve(4).putInt(-1);
+            return;
+        }
+
+        out.reserve(4).putInt(population.size());
+        for (int i = 0; i < population.size(); i++) {
+            final C chromo = population.get(i);
+            final boolean evaluated = population.isEvaluated(i);
+
+            final ByteBuffer buffer = out.reserve(1 + 8 + codec.size(chromo));
+            buffer.put((byte) (evaluated ? 1 : 0));
+            buffer.putDouble(evaluated ? population.fitness(i) : 0.0);
+            codec.encode(chromo, buffer);
+        }
+    }
+
+    private Population<C> decode (final Problem<V,C> problem, final Input in) throws IOException {
+        final int size = in.require(4).getInt();
+        if (size < 0) {
+            return null;
+        }
+
+        final Population<C> population = new Population<C>(problem, size);
+        for (int i = 0; i < size; i++) {
+            final ByteBuffer buffer = in.require(1 + 8);
+            final boolean evaluated = buffer.get() != 0;
+            final double fitness = buffer.getDouble();
+            final C chromo = in.decode(codec);
+
+            if (evaluated) {
+                population.add(chromo, fitness);
+            } else {
+                population.add(chromo);
+            }
+        }
+        return population;
+    }
+
+    /**
+     * A buffer in front of a channel, written to the channel whenever it has not enough room for the next value.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    private static final class Output {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+
+        /* package */Output (final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * @param bytes Number of bytes about to be written
+         * @return A buffer with room for at least <tt>bytes</tt> more bytes
+         * @throws IOException if the buffered bytes could not be written
+         */
+        /* package */ByteBuffer reserve (final int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+                if (buffer.capacity() < bytes) {
+                    buffer = ByteBuffer.allocate(bytes);
+                }
+            }
+            return buffer;
+        }
+
+        /**
+         * Writes every buffered byte to the channel.
+         * 
+         * @throws IOException if the bytes could not be written
+         */
+        /* package */void flush () throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * A buffer behind a channel, refilled from the channel whenever it has not enough bytes for the next value.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    private static final class Input {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+
+        /* package */Input (final FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        /**
+         * @param bytes Number of bytes about to be read
+         * @return A buffer with at least <tt>bytes</tt> more bytes
+         * @throws IOException if the channel could not be read
+         * @throws BufferUnderflowException if the channel ends before
+         */
+        /* package */ByteBuffer require (final int bytes) throws IOException {
+            if (buffer.remaining() < bytes && !fill(bytes)) {
+                throw new BufferUnderflowException();
+            }
+            return buffer;
+        }
+
+        /**
+         * Decodes a chromosome, whose size is not known before decoding it, reading more bytes and decoding it again
+         * whenever the buffer ends before it does.
+         * 
+         * @param codec Codec of the chromosome
+         * @return The decoded chromosome
+         * @throws IOException if the channel could not be read
+         * @throws BufferUnderflowException if the channel ends before the chromosome
+         */
+        /* package */<C extends Chromosome<C>> C decode (final ChromosomeCodec<C> codec) throws IOException {
+            while (true) {
+                final int start = buffer.position();
+                try {
+                    return codec.decode(buffer);
+                } catch (final BufferUnderflowException exc) {
+                    buffer.position(start);
+                    if (!fill(buffer.remaining() + 1)) {
+                        throw exc;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return Whether every byte of the channel was read
+         * @throws IOException if the channel could not be read
+         */
+        /* package */boolean atEnd () throws IOException {
+            return !buffer.hasRemaining() && !fill(1);
+        }
+
+        /** @return Whether the buffer has <tt>bytes</tt> bytes after reading as many as fit from the channel */
+        private boolean fill (final int bytes) throws IOException {
+            buffer.compact();
+            if (buffer.capacity() < bytes) {
+                final ByteBuffer larger = ByteBuffer.allocate(Math.max(bytes, 2 * buffer.capacity()));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full or the channel ends
+            }
+            buffer.flip();
+            return buffer.remaining() >= bytes;
+        }
+    }
+
+    /**
+     * The state of a solving process read from a snapshot.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <V> Type of the values of the solved problem
+     * @param <C> Type of the chromosomes to be processed
+     */
+    /* package */static final class Restored<V, C extends Chromosome<C>> {
+
+        /* package */final int generation;
+        /* package */final Random random;
+        /* package */final Population<C> population;
+        /* package */final SolverTrace<V,C> trace;
+
+        /* package */Restored (
+            final int generation, final Random random, final Population<C> population,
+            final SolverTrace<V,C> trace)
+        {
+            this.generation = generation;
+            this.random = random;
+            this.population = population;
+            this.trace = trace;
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package pe1314.g11;
 
+import java.util.Random;
+
+import pe1314.g11.util.Fingerprint;
+import pe1314.g11.util.MutationPlaces;
+
 /**
  * An individual on a population.
  * <p>
@@ -52,6 +57,27 @@ public abstract class Chromosome<C extends Chromosome<C>> {
      */
     public abstract C getMutated (int type, int place, int length);
 
+    /**
+     * Return a new chromosome with the same information as this but with several <tt>places</tt> mutated, one after
+     * another, using the specific <tt>type</tt> of mutation with a length of <tt>1</tt>.
+     * <p>
+     * The default implementation creates an intermediate chromosome for every place. Implementations should override
+     * it to mutate a single new chromosome in place before returning it.
+     * 
+     * @param type Mutation type to use
+     * @param places The places to mutate, in order
+     * @param count Number of places to mutate, from the start of <tt>places</tt>
+     * @return A mutated chromosome, or this one if <tt>count</tt> is <tt>0</tt>
+     */
+    @SuppressWarnings("unchecked")
+    public C getMutated (final int type, final int[] places, final int count) {
+        C chromo = (C) this;
+        for (int i = 0; i < count; i++) {
+            chromo = chromo.getMutated(type, places[i], 1);
+        }
+        return chromo;
+    }
+
     /**
      * Obtain the number of positions that can be used to combine this chromosome with another.
      * <p>
@@ -75,7 +101,8 @@ public abstract class Chromosome<C extends Chromosome<C>> {
      * <tt>type</tt>.
      * <p>
      * The <tt>place</tt> argument must be non-negative and strictly less than the result of
-     * {@link #getCombinationPlaces()}.
+     * {@link #getCombinationPlaces()}. Combination types that need more random numbers than a place and a length may
+     * be rejected with an <tt>IllegalArgumentException</tt>, and must be applied with {@link #combine combine}.
      * 
      * @param other Another chromosome for combination
      * @param type Combination type to use
@@ -85,4 +112,80 @@ public abstract class Chromosome<C extends Chromosome<C>> {
      */
     public abstract C getCombined (C other, int type, int place, int length);
 
+    /**
+     * Combines this chromosome with another one using the specified combination <tt>type</tt> on random places,
+     * storing both children on the first two positions of <tt>children</tt>. The first child is this chromosome
+     * combined with <tt>other</tt>, and the second one is <tt>other</tt> combined with this chromosome.
+     * <p>
+     * The default implementation draws two different combination places, the second one only if there are more than
+     * one, and calls {@link #getCombined(Chromosome, int, int, int) getCombined} with the first place and the distance
+     * to the second one as the length. Implementations should override it for the combination types that need more
+     * random numbers than a place and a length.
+     * 
+     * @param other Another chromosome for combination
+     * @param type Combination type to use
+     * @param points Number of combination points, for the combination types that use any number of them
+     * @param random The random generator to use
+     * @param children Array where the children are stored, which may be an array of <tt>C</tt>
+     */
+    @SuppressWarnings("unchecked")
+    public void combine (
+        final C other, final int type, final int points, final Random random, final Chromosome<?>[] children)
+    {
+        final int places = getCombinationPlaces();
+        final int place = random.nextInt(places);
+        int p2 = place;
+        while (place == p2 && places > 1) {
+            p2 = random.nextInt(places);
+        }
+
+        children[0] = getCombined(other, type, place, p2 - place);
+        children[1] = other.getCombined((C) this, type, place, p2 - place);
+    }
+
+    /**
+     * Combines this chromosome with another one as {@link #combine(Chromosome, int, int, Random, Chromosome[])
+     * combine}, and then mutates every child on the places drawn by <tt>mutation</tt>, first the places of the first
+     * child and then the ones of the second child.
+     * <p>
+     * The default implementation creates the combined children and then a mutated copy of every child with
+     * {@link #getMutated(int, int[], int)}. Implementations should override it to mutate the children before creating
+     * them, drawing the same random numbers.
+     * 
+     * @param other Another chromosome for combination
+     * @param type Combination type to use
+     * @param points Number of combination points, for the combination types that use any number of them
+     * @param random The random generator to use
+     * @param mutation Drawer of the mutated places of every child
+     * @param mutationType Mutation type to use
+     * @param children Array where the children are stored, which may be an array of <tt>C</tt>
+     */
+    @SuppressWarnings("unchecked")
+    public void combine (
+        final C other, final int type, final int points, final Random random, final MutationPlaces mutation,
+        final int mutationType, final Chromosome<?>[] children)
+    {
+        combine(other, type, points, random, children);
+
+        for (int i = 0; i < 2; i++) {
+            final C child = (C) children[i];
+            final int count = mutation.draw(child.getMutationPlaces(), random);
+            children[i] = child.getMutated(mutationType, mutation.getPlaces(), count);
+        }
+    }
+
+    /**
+     * Obtain a 64-bit fingerprint of the structure of this chromosome.
+     * <p>
+     * Equal chromosomes must have equal fingerprints, and different chromosomes should rarely have them. Chromosomes
+     * are immutable, so implementations should compute their fingerprint once and cache it, as this method may be
+     * called many times on the same chromosome. The default implementation spreads the {@link #hashCode() hash code}.
+     * 
+     * @return Fingerprint of this chromosome
+     * @see Fingerprint
+     */
+    public long fingerprint () {
+        return Fingerprint.add(Fingerprint.SEED, hashCode());
+    }
+
 }
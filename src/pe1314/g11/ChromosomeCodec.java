@@ -0,0 +1,38 @@
+package pe1314.g11;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary encoding of a chromosome type, used to store chromosomes on solver checkpoints.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <C> Type of the encoded chromosomes
+ */
+public interface ChromosomeCodec<C extends Chromosome<C>> {
+
+    /**
+     * Computes the number of bytes used to encode a chromosome.
+     * 
+     * @param chromo Chromosome to encode
+     * @return Exact number of bytes written by {@link #encode} for <tt>chromo</tt>
+     */
+    public abstract int size (C chromo);
+
+    /**
+     * Writes a chromosome into a buffer at its current position, advancing it.
+     * 
+     * @param chromo Chromosome to encode
+     * @param buffer Buffer with at least {@link #size size(chromo)} bytes remaining
+     */
+    public abstract void encode (C chromo, ByteBuffer buffer);
+
+    /**
+     * Reads a chromosome from a buffer at its current position, advancing it.
+     * 
+     * @param buffer Buffer to read from
+     * @return The decoded chromosome
+     * @throws IllegalArgumentException if the buffer does not hold a valid chromosome
+     */
+    public abstract C decode (ByteBuffer buffer);
+}
@@ -0,0 +1,271 @@
+package pe1314.g11;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Append-only table of primitive columns, used to keep per-generation data of long processes without one object per
+ * generation.
+ * <p>
+ * The last rows (up to a fixed <i>window</i>) are kept on growable <tt>long[]</tt> and <tt>double[]</tt> columns. When
+ * the window is full, all of its rows are spilled as a single block to a memory-mapped temporary file and the window
+ * starts empty again, so heap use never exceeds the window, no matter how many rows are added. Spilled rows can still
+ * be read, mapping one block at a time. The temporary file is created on the first spill and deleted when the store is
+ * {@link #close() closed}, or when the virtual machine exits if it never is. A closed store keeps the rows on the heap,
+ * but its spilled rows can no longer be read.
+ * <p>
+ * Blocks are stored column after column, with every column holding <tt>window</tt> values in native byte order, and
+ * a block is mapped as a whole, so the bytes of a block must fit in an <tt>int</tt>.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+/* package */final class ColumnStore implements Closeable {
+
+    /** Default number of rows kept on the heap */
+    /* package */static final int DEFAULT_WINDOW = 1 << 16;
+
+    /** Initial capacity of the columns, which grow up to the window */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Number of rows kept on the heap */
+    private final int window;
+
+    /** Bytes used by every spilled block */
+    private final long blockBytes;
+
+    /** Columns kept on the heap */
+    private final long[][] longs;
+    private final double[][] doubles;
+
+    /** Number of rows spilled to the file */
+    private int spilled = 0;
+
+    /** Number of rows kept on the heap */
+    private int rows = 0;
+
+    /** File the rows beyond the window are spilled to, or <tt>null</tt> if nothing was spilled yet */
+    private FileChannel channel = null;
+
+    /** Last block mapped for reading */
+    private MappedByteBuffer readBlock = null;
+
+    /** Index of {@link #readBlock} */
+    private int readBlockIndex = -1;
+
+    /** Whether the spill file was closed */
+    private boolean closed = false;
+
+    /**
+     * @param longColumns Number of <tt>long</tt> columns
+     * @param doubleColumns Number of <tt>double</tt> columns
+     * @param window Maximum number of rows kept on the heap, up to {@link #maxWindow(int)} of all the columns
+     */
+    /* package */ColumnStore (final int longColumns, final int doubleColumns, final int window) {
+        if (window < 1 || window > maxWindow(longColumns + doubleColumns)) {
+            throw new IllegalArgumentException("invalid window: " + window);
+        }
+
+        this.window = window;
+        this.blockBytes = (long) window * 8 * (longColumns + doubleColumns);
+
+        final int capacity = Math.min(window, INITIAL_CAPACITY);
+        longs = new long[longColumns][capacity];
+        doubles = new double[doubleColumns][capacity];
+    }
+
+    /**
+     * @param columns Number of columns of a store
+     * @return Maximum window of a store with that many columns, whose blocks can still be mapped
+     */
+    /* package */static int maxWindow (final int columns) {
+        return Integer.MAX_VALUE / (8 * Math.max(1, columns));
+    }
+
+    /** @return Total number of rows added */
+    /* package */int size () {
+        return spilled + rows;
+    }
+
+    /** @return Maximum number of rows kept on the heap */
+    /* package */int window () {
+        return window;
+    }
+
+    /**
+     * Adds a row with every value set to zero, spilling the rows on the heap if the window is full.
+     * 
+     * @return Index of the new row
+     * @throws IllegalStateException if the rows could not be spilled to disk
+     */
+    /* package */int addRow () {
+        if (rows == window) {
+            spill();
+        }
+
+        final int capacity = (longs.length > 0) ? longs[0].length : doubles[0].length;
+        if (rows == capacity) {
+            final int newCapacity = (int) Math.min(window, 2L * capacity);
+            for (int c = 0; c < longs.length; c++) {
+                longs[c] = Arrays.copyOf(longs[c], newCapacity);
+            }
+            for (int c = 0; c < doubles.length; c++) {
+                doubles[c] = Arrays.copyOf(doubles[c], newCapacity);
+            }
+        } else {
+            for (int c = 0; c < longs.length; c++) {
+                longs[c][rows] = 0L;
+            }
+            for (int c = 0; c < doubles.length; c++) {
+                doubles[c][rows] = 0.0;
+            }
+        }
+
+        return spilled + rows++;
+    }
+
+    /**
+     * Sets a value of the last row.
+     * 
+     * @param column Index of the column
+     * @param value New value
+     */
+    /* package */void setLong (final int column, final long value) {
+        longs[column][rows - 1] = value;
+    }
+
+    /**
+     * Sets a value of the last row.
+     * 
+     * @param column Index of the column
+     * @param value New value
+     */
+    /* package */void setDouble (final int column, final double value) {
+        doubles[column][rows - 1] = value;
+    }
+
+    /**
+     * @param row Index of the row
+     * @param column Index of the column
+     * @return The value at the given row and column
+     */
+    /* package */long getLong (final int row, final int column) {
+        if (row >= spilled) {
+            return longs[column][checkRow(row) - spilled];
+        }
+        return block(row).getLong(offset(row, column));
+    }
+
+    /**
+     * @param row Index of the row
+     * @param column Index of the column
+     * @return The value at the given row and column
+     */
+    /* package */double getDouble (final int row, final int column) {
+        if (row >= spilled) {
+            return doubles[column][checkRow(row) - spilled];
+        }
+        return block(row).getDouble(offset(row, longs.length + column));
+    }
+
+    /** @return <tt>row</tt>, if it is a valid row */
+    private int checkRow (final int row) {
+        if (row < 0 || row >= spilled + rows) {
+            throw new IndexOutOfBoundsException("row " + row + " not in [0, " + (spilled + rows) + ")");
+        }
+        return row;
+    }
+
+    /** @return Byte offset of a value of a spilled row within its block, which fits an int as blocks do */
+    private int offset (final int row, final int column) {
+        return (column * window + row % window) * 8;
+    }
+
+    /** @return The mapped block of a spilled row */
+    private ByteBuffer block (final int row) {
+        checkRow(row);
+        if (closed) {
+            throw new IllegalStateException("spilled rows of a closed store");
+        }
+
+        final int index = row / window;
+        if (index != readBlockIndex) {
+            try {
+                readBlock = channel.map(FileChannel.MapMode.READ_ONLY, index * blockBytes, blockBytes);
+                readBlock.order(ByteOrder.nativeOrder());
+                readBlockIndex = index;
+            } catch (final IOException exc) {
+                throw new IllegalStateException("could not read spilled rows", exc);
+            }
+        }
+        return readBlock;
+    }
+
+    /** Writes every row on the heap as a new block of the spill file, leaving the window empty */
+    private void spill () {
+        if (closed) {
+            throw new IllegalStateException("rows added to a closed store");
+        }
+
+        try {
+            if (channel == null) {
+                final Path file = Files.createTempFile("trace", ".bin");
+                file.toFile().deleteOnExit();
+                channel =
+                    FileChannel.open(
+                        file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+
+            final MappedByteBuffer block =
+                channel.map(FileChannel.MapMode.READ_WRITE, (spilled / window) * blockBytes, blockBytes);
+            block.order(ByteOrder.nativeOrder());
+            for (final long[] column : longs) {
+                block.asLongBuffer().put(column, 0, window);
+                block.position(block.position() + window * 8);
+            }
+            for (final double[] column : doubles) {
+                block.asDoubleBuffer().put(column, 0, window);
+                block.position(block.position() + window * 8);
+            }
+
+        } catch (final IOException exc) {
+            throw new IllegalStateException("could not spill rows", exc);
+        }
+
+        spilled += rows;
+        rows = 0;
+    }
+
+    /**
+     * Closes and deletes the spill file, if any. The rows on the heap can still be read, but spilled rows cannot, and
+     * no more rows can be added once the window is full. Closing an already closed store does nothing.
+     * <p>
+     * The last block mapped for reading is dropped, but it is only unmapped once it is garbage collected.
+     * 
+     * @throws IOException if the spill file could not be closed
+     */
+    @Override
+    public void close () throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        readBlock = null;
+        readBlockIndex = -1;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package pe1314.g11;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import pe1314.g11.util.FitnessSort;
+import pe1314.g11.util.SplitMixRandom;
+
+/**
+ * A solver that evolves several subpopulations (islands) in parallel, one per thread, exchanging their best
+ * chromosomes periodically.
+ * <p>
+ * Every generation is run on all the islands at the same time, and the solver waits for all of them to finish it
+ * before notifying the callbacks with the merged population. Every <tt>interval</tt> generations, while the islands
+ * are stopped, every island sends a copy of its best chromosomes to the next one, which replaces its worst chromosomes
+ * with them. Since every island has its own random generator, {@link SplitMixRandom#from split} from the one given to
+ * the solver in island order, runs are reproducible whatever the number of threads.
+ * <p>
+ * Every island runs its own {@link Solver}, created by a {@link Factory}, so steps that keep state between generations
+ * (like the ones of an {@link pe1314.g11.util.ElitismStepPair ElitismStepPair}) are never shared between islands.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values of the solved problem
+ * @param <C> Type of the chromosomes to be processed
+ */
+public final class IslandSolver<V, C extends Chromosome<C>> {
+
+    /** Solvers used by every island */
+    private final List<Solver<V,C>> solvers;
+
+    /** Number of generations between migrations */
+    private final int interval;
+
+    /** Number of chromosomes sent from every island on each migration */
+    private final int migrants;
+
+    /**
+     * Creates an island solver.
+     * 
+     * @param solvers Solvers used by every island, which must all solve the same problem
+     * @param interval Number of generations between migrations
+     * @param migrants Number of chromosomes sent from every island on each migration
+     */
+    /* package */IslandSolver (final List<Solver<V,C>> solvers, final int interval, final int migrants) {
+        this.solvers = solvers;
+        this.interval = interval;
+        this.migrants = migrants;
+    }
+
+    /**
+     * Creates an island solver with one island per available processor.
+     * 
+     * @param interval Number of generations between migrations
+     * @param migrants Number of chromosomes sent from every island on each migration
+     * @param factory Factory for the solvers of every island
+     * @return A new island solver
+     */
+    public static <V, C extends Chromosome<C>> IslandSolver<V,C> create (
+        final int interval, final int migrants, final Factory<V,C> factory)
+    {
+        return create(Runtime.getRuntime().availableProcessors(), interval, migrants, factory);
+    }
+
+    /**
+     * Creates an island solver.
+     * 
+     * @param islands Number of islands
+     * @param interval Number of generations between migrations
+     * @param migrants Number of chromosomes sent from every island on each migration
+     * @param factory Factory for the solvers of every island
+     * @return A new island solver
+     */
+    public static <V, C extends Chromosome<C>> IslandSolver<V,C> create (
+        final int islands, final int interval, final int migrants, final Factory<V,C> factory)
+    {
+        if (islands < 1) {
+            throw new IllegalArgumentException("invalid number of islands: " + islands);
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("invalid migration interval: " + interval);
+        }
+        if (migrants < 0) {
+            throw new IllegalArgumentException("invalid number of migrants: " + migrants);
+        }
+
+        final List<Solver<V,C>> solvers = new ArrayList<Solver<V,C>>(islands);
+        for (int i = 0; i < islands; i++) {
+            final Solver<V,C> solver = factory.create(i);
+            if (i > 0 && solver.getProblem() != solvers.get(0).getProblem()) {
+                throw new IllegalArgumentException("islands must solve the same problem");
+            }
+            solvers.add(solver);
+        }
+
+        return new IslandSolver<V,C>(Collections.unmodifiableList(solvers), interval, migrants);
+    }
+
+    // ==============================
+    // === PUBLIC SOLVING METHODS ===
+
+    /**
+     * Solves a specific problem using this solver.
+     * <p>
+     * Callbacks are notified from the calling thread once per generation, receiving the populations of all islands
+     * together. Step notifications are not sent.
+     * 
+     * @param random The random generator the generator of every island is split from
+     * @param callbacks The callbacks to use
+     * @return The merged trace of all islands, which also holds the trace of every island
+     */
+    public SolverTrace<V,C> solve (final Random random, final Solver.Callbacks<V,C> callbacks) {
+        final Problem<V,C> problem = getProblem();
+
+        final List<Island> islands = new ArrayList<Island>(solvers.size());
+        final List<SolverTrace<V,C>> traces = new ArrayList<SolverTrace<V,C>>(solvers.size());
+        for (int i = 0; i < solvers.size(); i++) {
+            final Island island = new Island(solvers.get(i), SplitMixRandom.from(random));
+            islands.add(island);
+            traces.add(island.trace);
+        }
+
+        final SolverTrace<V,C> trace = solvers.get(0).newTrace();
+        final ExecutorService executor = Executors.newFixedThreadPool(islands.size(), new IslandThreadFactory());
+        try {
+            // Notify of the start of the process
+            callbacks.startProcess(solvers.get(0));
+
+            int gen = 0;
+            while (!callbacks.shouldStop()) {
+                if (gen > 0 && gen % interval == 0) {
+                    migrate(islands);
+                }
+
+                callbacks.startGeneration(gen, Population.unmodifiable(merge(problem, islands)));
+
+                // Run the generation on every island
+                for (final Island island : islands) {
+                    island.gen = gen;
+                }
+                for (final Future<Void> future : executor.invokeAll(islands)) {
+                    future.get();
+                }
+
+                // Update the merged trace
+                trace.merge(traces);
+                gen++;
+
+                callbacks.endGeneration(Population.unmodifiable(merge(problem, islands)));
+            }
+
+        } catch (final InterruptedException exc) {
+            Thread.currentThread().interrupt();
+
+        } catch (final ExecutionException exc) {
+            final Throwable cause = exc.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Notify of the end of the process
+        callbacks.endProcess(trace);
+
+        return trace;
+    }
+
+    public Problem<V,C> getProblem () {
+        return solvers.get(0).getProblem();
+    }
+
+    /** @return Number of islands of this solver */
+    public int getIslands () {
+        return solvers.size();
+    }
+
+    // ===============================
+    // === INTERNAL IMPLEMENTATION ===
+
+    /** @return A new population with the members of every island */
+    private Population<C> merge (final Problem<V,C> problem, final List<Island> islands) {
+        final Population<C> merged = new Population<C>(problem);
+        for (final Island island : islands) {
+            merged.addAll(island.population);
+        }
+        return merged;
+    }
+
+    /** Replaces the worst chromosomes of every island with copies of the best ones of the previous island */
+    private void migrate (final List<Island> islands) {
+        if (migrants == 0) {
+            return;
+        }
+
+        final List<Population<C>> outgoing = new ArrayList<Population<C>>(islands.size());
+        for (final Island island : islands) {
+            outgoing.add(island.emigrants());
+        }
+        for (int i = 0; i < islands.size(); i++) {
+            islands.get(i).immigrate(outgoing.get((i + islands.size() - 1) % islands.size()));
+        }
+    }
+
+    /**
+     * The state of a single island, which runs a generation every time it is called.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    private final class Island implements Callable<Void> {
+
+        private final Solver<V,C> solver;
+        private final Random random;
+
+        /* package */final SolverTrace<V,C> trace;
+
+        /* package */Population<C> population;
+        private Population<C> buffer;
+
+        /** Generation run by the next call */
+        /* package */int gen = 0;
+
+        /* package */Island (final Solver<V,C> solver, final Random random) {
+            this.solver = solver;
+            this.random = random;
+
+            trace = solver.newTrace();
+            population = new Population<C>(solver.getProblem());
+            buffer = new Population<C>(solver.getProblem());
+        }
+
+        @Override
+        public Void call () {
+            long time = System.nanoTime();
+            final Population<C> next = solver.applySteps(population, buffer, random, gen, null, trace);
+            if (next != population) {
+                buffer = population;
+                population = next;
+            }
+            time = System.nanoTime() - time;
+
+            trace.generation(population, time);
+            return null;
+        }
+
+        /** @return A copy of the best chromosomes of this island */
+        /* package */Population<C> emigrants () {
+            final int[] order = FitnessSort.order(population);
+
+            final Population<C> outgoing = new Population<C>(solver.getProblem(), migrants);
+            for (int i = 0; i < migrants && i < order.length; i++) {
+                outgoing.addFrom(population, order[i]);
+            }
+            return outgoing;
+        }
+
+        /** Replaces the worst chromosomes of this island with <tt>incoming</tt> */
+        /* package */void immigrate (final Population<C> incoming) {
+            if (incoming.isEmpty() || population.isEmpty()) {
+                return;
+            }
+
+            population.sortByFitness();
+            final int kept = Math.max(0, population.size() - incoming.size());
+
+            buffer.clear();
+            for (int i = 0; i < kept; i++) {
+                buffer.addFrom(population, i);
+            }
+            buffer.addAll(incoming);
+
+            final Population<C> old = population;
+            population = buffer;
+            buffer = old;
+        }
+    }
+
+    /**
+     * A factory that creates the solver used by an island.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <V> Type of the values of the solved problem
+     * @param <C> Type of the chromosomes to be processed
+     */
+    public interface Factory<V, C extends Chromosome<C>> {
+
+        /**
+         * Creates the solver of an island. Every call must return a solver with new instances of its steps.
+         * 
+         * @param island Index of the island
+         * @return A new solver for the island
+         */
+        public abstract Solver<V,C> create (int island);
+    }
+
+    /** A thread factory that creates daemon threads for the islands */
+    private static final class IslandThreadFactory implements ThreadFactory {
+
+        private int count = 0;
+
+        /* package */IslandThreadFactory () {
+        }
+
+        @Override
+        public synchronized Thread newThread (final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "island-" + count++);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
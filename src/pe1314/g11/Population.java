@@ -0,0 +1,609 @@
+package pe1314.g11;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import pe1314.g11.util.FitnessSort;
+
+/**
+ * A list of chromosomes that remembers the fitness of each of its members.
+ * <p>
+ * The fitness of every member is evaluated lazily the first time it is requested with {@link #fitness(int)}, and kept
+ * together with the chromosome when it is moved around using {@link #addFrom(Population, int)},
+ * {@link #addAll(Collection) addAll} or any of the sorting methods. This way, a chromosome that survives through the
+ * steps of a generation is only evaluated once.
+ * <p>
+ * Every population counts the evaluations done on its members and through {@link #evaluate(Chromosome)}, so the
+ * evaluations of a solver are not mixed with those of other solvers working on the same problem.
+ * <p>
+ * Objects of this class are not thread-safe, with the exception of {@link #evaluate(ForkJoinPool)}.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <C> Type of the chromosomes
+ */
+public class Population<C extends Chromosome<C>> extends AbstractList<C> implements RandomAccess {
+
+    /** Number of chromosomes below which an evaluation task evaluates its range directly */
+    private static final int EVALUATION_THRESHOLD = 8;
+
+    /** The problem used to evaluate the members */
+    private final Problem<?,C> problem;
+
+    /** Members of this population */
+    private Object[] chromosomes;
+
+    /** Fitness of each member, only meaningful if evaluated */
+    private double[] fitness;
+
+    /** Whether each member has been evaluated */
+    private boolean[] evaluated;
+
+    /** Number of members */
+    private int size;
+
+    /** Number of fitness evaluations done on this population */
+    private long evaluations;
+
+    /**
+     * Creates an empty population.
+     * 
+     * @param problem Problem used to evaluate the members of this population
+     */
+    public Population (final Problem<?,C> problem) {
+        this(problem, 16);
+    }
+
+    /**
+     * Creates an empty population with room for <tt>capacity</tt> members.
+     * 
+     * @param problem Problem used to evaluate the members of this population
+     * @param capacity Initial capacity
+     */
+    public Population (final Problem<?,C> problem, final int capacity) {
+        if (problem == null) {
+            throw new NullPointerException("problem");
+        }
+
+        this.problem = problem;
+        chromosomes = new Object[Math.max(capacity, 1)];
+        fitness = new double[chromosomes.length];
+        evaluated = new boolean[chromosomes.length];
+    }
+
+    /**
+     * Creates a population with the same members and known fitness values as <tt>other</tt>.
+     * 
+     * @param other Population to copy
+     */
+    public Population (final Population<C> other) {
+        this(other.getProblem(), other.size());
+        addAll(other);
+    }
+
+    /**
+     * Returns an unmodifiable view of a population. The fitness of its members can still be evaluated through the view.
+     * 
+     * @param population The population to wrap
+     * @return An unmodifiable view of <tt>population</tt>
+     */
+    public static <C extends Chromosome<C>> Population<C> unmodifiable (final Population<C> population) {
+        if (population instanceof Unmodifiable) {
+            return population;
+        }
+        return new Unmodifiable<C>(population);
+    }
+
+    /** @return The problem used to evaluate the members of this population */
+    public Problem<?,C> getProblem () {
+        return problem;
+    }
+
+    /** @return Number of fitness evaluations done on this population since it was created */
+    public long getEvaluations () {
+        return evaluations;
+    }
+
+    // =============
+    // === LIST ===
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public C get (final int index) {
+        checkIndex(index);
+        return (C) chromosomes[index];
+    }
+
+    @Override
+    public C set (final int index, final C chromo) {
+        final C old = get(index);
+        chromosomes[index] = requireChromosome(chromo);
+        evaluated[index] = false;
+        return old;
+    }
+
+    @Override
+    public boolean add (final C chromo) {
+        append(requireChromosome(chromo), 0.0, false);
+        return true;
+    }
+
+    @Override
+    public void add (final int index, final C chromo) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index: " + index);
+        }
+
+        ensureCapacity(size + 1);
+        System.arraycopy(chromosomes, index, chromosomes, index + 1, size - index);
+        System.arraycopy(fitness, index, fitness, index + 1, size - index);
+        System.arraycopy(evaluated, index, evaluated, index + 1, size - index);
+
+        chromosomes[index] = requireChromosome(chromo);
+        evaluated[index] = false;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public C remove (final int index) {
+        final C old = get(index);
+
+        final int moved = size - index - 1;
+        System.arraycopy(chromosomes, index + 1, chromosomes, index, moved);
+        System.arraycopy(fitness, index + 1, fitness, index, moved);
+        System.arraycopy(evaluated, index + 1, evaluated, index, moved);
+
+        size--;
+        chromosomes[size] = null;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear () {
+        Arrays.fill(chromosomes, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Appends all chromosomes of the given collection. If <tt>coll</tt> is a population, the known fitness values are
+     * kept.
+     */
+    @Override
+    public boolean addAll (final Collection<? extends C> coll) {
+        if (coll instanceof Population) {
+            @SuppressWarnings("unchecked")
+            final Population<C> other = (Population<C>) coll;
+            ensureCapacity(size + other.size());
+            for (int i = 0; i < other.size(); i++) {
+                addFrom(other, i);
+            }
+            return other.size() > 0;
+        }
+
+        return super.addAll(coll);
+    }
+
+    // ===============
+    // === FITNESS ===
+
+    /**
+     * Appends a chromosome whose fitness is already known.
+     * 
+     * @param chromo Chromosome to add
+     * @param fit Fitness of <tt>chromo</tt>
+     */
+    public void add (final C chromo, final double fit) {
+        append(requireChromosome(chromo), fit, true);
+    }
+
+    /**
+     * Replaces the member at <tt>index</tt> with a chromosome whose fitness is already known.
+     * 
+     * @param index Position of the replaced member
+     * @param chromo Chromosome to store
+     * @param fit Fitness of <tt>chromo</tt>
+     * @return The chromosome previously at <tt>index</tt>
+     */
+    public C set (final int index, final C chromo, final double fit) {
+        final C old = get(index);
+        chromosomes[index] = requireChromosome(chromo);
+        fitness[index] = fit;
+        evaluated[index] = true;
+        return old;
+    }
+
+    /**
+     * Appends the member of <tt>other</tt> at <tt>index</tt>, keeping its fitness if already evaluated.
+     * 
+     * @param other Population to take the chromosome from
+     * @param index Position of the chromosome on <tt>other</tt>
+     */
+    public void addFrom (final Population<C> other, final int index) {
+        final C chromo = other.get(index);
+        if (other.isEvaluated(index)) {
+            append(chromo, other.fitness(index), true);
+        } else {
+            append(chromo, 0.0, false);
+        }
+    }
+
+    /**
+     * @param index Position of a member
+     * @return Whether the fitness of the member at <tt>index</tt> is already known
+     */
+    public boolean isEvaluated (final int index) {
+        checkIndex(index);
+        return evaluated[index];
+    }
+
+    /**
+     * Obtains the fitness of a member, evaluating it if it was not known.
+     * 
+     * @param index Position of a member
+     * @return Fitness of the member at <tt>index</tt>
+     */
+    public double fitness (final int index) {
+        checkIndex(index);
+        if (!evaluated[index]) {
+            evaluateAt(index);
+        }
+        return fitness[index];
+    }
+
+    /**
+     * Compares two members by their fitness, according to the problem type.
+     * 
+     * @param i Position of the first member
+     * @param j Position of the second member
+     * @return A negative number if the first member is better than the second, a positive number if it is worse, or
+     *         <tt>0</tt> if both are equally fit
+     */
+    public int compare (final int i, final int j) {
+        return problem.type().compare(fitness(i), fitness(j));
+    }
+
+    /** @return Position of the best member of this population, or <tt>-1</tt> if it is empty */
+    public int best () {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best < 0 || compare(i, best) < 0) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /** Evaluates every member whose fitness is not known yet on the calling thread. */
+    public void evaluate () {
+        for (int i = 0; i < size; i++) {
+            if (!evaluated[i]) {
+                evaluateAt(i);
+            }
+        }
+    }
+
+    /**
+     * Evaluates a chromosome that is not a member of this population with its problem, counting the evaluation on this
+     * population. Steps that need the fitness of chromosomes they may not keep should use this method instead of
+     * {@link Problem#fitness}, so the evaluations appear on the {@link StepMetrics}.
+     * 
+     * @param chromosome Chromosome to evaluate
+     * @return The fitness of the given chromosome
+     */
+    public double evaluate (final C chromosome) {
+        evaluations++;
+        return problem.fitness(chromosome);
+    }
+
+    /**
+     * Evaluates every member whose fitness is not known yet on the given pool. The problem must be safe to evaluate
+     * from multiple threads.
+     * 
+     * @param pool The pool in which members are evaluated
+     */
+    public void evaluate (final ForkJoinPool pool) {
+        int pending = 0;
+        for (int i = 0; i < size; i++) {
+            if (!evaluated[i]) {
+                pending++;
+            }
+        }
+
+        // Tasks do not touch the counter, as they run concurrently
+        pool.invoke(new EvaluationTask(0, size));
+        evaluations += pending;
+    }
+
+    /* package */void evaluateAt (final int index) {
+        store(index);
+        evaluations++;
+    }
+
+    /** Evaluates the member at <tt>index</tt> without counting the evaluation */
+    private void store (final int index) {
+        fitness[index] = problem.fitness(get(index));
+        evaluated[index] = true;
+    }
+
+    // ===============
+    // === SORTING ===
+
+    /**
+     * Sorts this population so the best members come first, evaluating the unknown ones. Members with equal fitness
+     * keep their relative order.
+     * 
+     * @see FitnessSort
+     */
+    public void sortByFitness () {
+        evaluate();
+        reorder(FitnessSort.order(fitness, size, problem.type()));
+    }
+
+    /**
+     * Sorts this population using a comparator on the chromosomes, keeping the known fitness values.
+     * 
+     * @param comparator Comparator for the chromosomes, or <tt>null</tt> for their natural ordering
+     */
+    public void sortBy (final Comparator<? super C> comparator) {
+        final Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = Integer.valueOf(i);
+        }
+
+        Arrays.sort(boxed, new Comparator<Integer>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public int compare (final Integer i1, final Integer i2) {
+                final C c1 = get(i1.intValue());
+                final C c2 = get(i2.intValue());
+                return comparator == null ? ((Comparable<? super C>) c1).compareTo(c2) : comparator.compare(c1, c2);
+            }
+        });
+
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = boxed[i].intValue();
+        }
+        reorder(order);
+    }
+
+    /**
+     * Moves every member, with its fitness, to the position it has on <tt>order</tt>, following the cycles of the
+     * permutation so no arrays are copied.
+     * 
+     * @param order The position of every member before reordering, in its new order
+     */
+    private void reorder (final int[] order) {
+        final boolean[] placed = new boolean[size];
+        for (int start = 0; start < size; start++) {
+            if (placed[start]) {
+                continue;
+            }
+
+            final Object chromo = chromosomes[start];
+            final double fit = fitness[start];
+            final boolean known = evaluated[start];
+
+            int dst = start;
+            int src = order[dst];
+            while (src != start) {
+                chromosomes[dst] = chromosomes[src];
+                fitness[dst] = fitness[src];
+                evaluated[dst] = evaluated[src];
+                placed[dst] = true;
+                dst = src;
+                src = order[dst];
+            }
+
+            chromosomes[dst] = chromo;
+            fitness[dst] = fit;
+            evaluated[dst] = known;
+            placed[dst] = true;
+        }
+        modCount++;
+    }
+
+    // ================
+    // === INTERNAL ===
+
+    private void append (final C chromo, final double fit, final boolean known) {
+        ensureCapacity(size + 1);
+        chromosomes[size] = chromo;
+        fitness[size] = fit;
+        evaluated[size] = known;
+        size++;
+        modCount++;
+    }
+
+    private void ensureCapacity (final int capacity) {
+        if (capacity > chromosomes.length) {
+            final int newCapacity = Math.max(capacity, chromosomes.length + (chromosomes.length >> 1));
+            chromosomes = Arrays.copyOf(chromosomes, newCapacity);
+            fitness = Arrays.copyOf(fitness, newCapacity);
+            evaluated = Arrays.copyOf(evaluated, newCapacity);
+        }
+    }
+
+    private void checkIndex (final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index);
+        }
+    }
+
+    private static <C> C requireChromosome (final C chromo) {
+        if (chromo == null) {
+            throw new NullPointerException("chromosome");
+        }
+        return chromo;
+    }
+
+    /**
+     * A task that evaluates a range of members, splitting it in halves while it is large enough.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    private final class EvaluationTask extends RecursiveAction {
+
+        /** Generated by Eclipse */
+        private static final long serialVersionUID = 4387164019512245611L;
+
+        private final int from;
+        private final int to;
+
+        /* package */EvaluationTask (final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute () {
+            if (to - from <= EVALUATION_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    if (!evaluated[i]) {
+                        store(i);
+                    }
+                }
+                return;
+            }
+
+            final int mid = (from + to) >>> 1;
+            invokeAll(new EvaluationTask(from, mid), new EvaluationTask(mid, to));
+        }
+    }
+
+    /**
+     * An unmodifiable view of a population.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <C> Type of the chromosomes
+     */
+    private static final class Unmodifiable<C extends Chromosome<C>> extends Population<C> {
+
+        private final Population<C> population;
+
+        /* package */Unmodifiable (final Population<C> population) {
+            super(population.getProblem(), 1);
+            this.population = population;
+        }
+
+        @Override
+        public int size () {
+            return population.size();
+        }
+
+        @Override
+        public C get (final int index) {
+            return population.get(index);
+        }
+
+        @Override
+        public boolean isEvaluated (final int index) {
+            return population.isEvaluated(index);
+        }
+
+        @Override
+        public double fitness (final int index) {
+            return population.fitness(index);
+        }
+
+        @Override
+        public int compare (final int i, final int j) {
+            return population.compare(i, j);
+        }
+
+        @Override
+        public int best () {
+            return population.best();
+        }
+
+        @Override
+        public void evaluate () {
+            population.evaluate();
+        }
+
+        @Override
+        public void evaluate (final ForkJoinPool pool) {
+            population.evaluate(pool);
+        }
+
+        @Override
+        public double evaluate (final C chromosome) {
+            return population.evaluate(chromosome);
+        }
+
+        @Override
+        public long getEvaluations () {
+            return population.getEvaluations();
+        }
+
+        @Override
+        public C set (final int index, final C chromo) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public C set (final int index, final C chromo, final double fit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean add (final C chromo) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add (final int index, final C chromo) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add (final C chromo, final double fit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addFrom (final Population<C> other, final int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll (final Collection<? extends C> coll) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public C remove (final int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear () {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sortByFitness () {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sortBy (final Comparator<? super C> comparator) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -64,5 +64,17 @@ public abstract class Problem<V, C extends Chromosome<C>> {
         public int getCompareMultiplier () {
             return mult;
         }
+
+        /**
+         * Compares two fitness values according to this problem type.
+         * 
+         * @param f1 First fitness value
+         * @param f2 Second fitness value
+         * @return A negative number if <tt>f1</tt> is better than <tt>f2</tt>, a positive number if it is worse, or
+         *         <tt>0</tt> if both are equally good
+         */
+        public int compare (final double f1, final double f2) {
+            return mult * Double.compare(f1, f2);
+        }
     }
 }
@@ -1,10 +1,15 @@
 package pe1314.g11;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
+import pe1314.g11.util.SplitMixRandom;
+import pe1314.g11.util.XorShiftRandom;
+
 /**
  * A class representing the general algorithm for solving genetic problems, with a configurable "pipeline"for different
  * algorithm variations.
@@ -22,14 +27,27 @@ public final class Solver<V, C extends Chromosome<C>> {
     /** List of steps to take for a population */
     private final List<SolverStep<V,C>> steps;
 
+    /** Periodic snapshots of the process, or <tt>null</tt> */
+    private final Checkpoint<V,C> checkpoint;
+
+    /** Number of generations kept on the heap by the traces */
+    private final int traceWindow;
+
     /**
      * Creates a problem solver that will use the given steps.
      * 
      * @param steps Steps to be applied to each generation
+     * @param checkpoint Periodic snapshots of the process, or <tt>null</tt>
+     * @param traceWindow Number of generations kept on the heap by the traces
      */
-    Solver (final Problem<V,C> problem, final List<SolverStep<V,C>> steps) {
+    Solver (
+        final Problem<V,C> problem, final List<SolverStep<V,C>> steps, final Checkpoint<V,C> checkpoint,
+        final int traceWindow)
+    {
         this.problem = problem;
         this.steps = steps;
+        this.checkpoint = checkpoint;
+        this.traceWindow = traceWindow;
     }
 
     // ==============================
@@ -41,49 +59,61 @@ public final class Solver<V, C extends Chromosome<C>> {
      * @param random The random generator to use
      * @param callbacks The callbacks to use
      * @return The best value seen
+     * @throws IllegalStateException if a snapshot could not be written, stopping the process
      */
     public SolverTrace<V,C> solve (final Random random, final Callbacks<V,C> callbacks) {
-        return doTrace(random, true, callbacks);
+        if (checkpoint != null && !Checkpoint.supports(random)) {
+            throw new IllegalArgumentException("checkpoints need a XorShiftRandom or a SplitMixRandom");
+        }
+
+        return doTrace(random, true, callbacks, 0, new Population<C>(problem), newTrace());
+    }
+
+    /**
+     * Resumes a process from a snapshot written by a solver with the same steps, continuing with the same random
+     * stream it would have used. This solver must have been built with a checkpoint.
+     * 
+     * @param from Snapshot to resume from
+     * @param callbacks The callbacks to use
+     * @return The trace of the whole process, including the generations before the snapshot
+     * @throws IOException if the snapshot could not be read or does not match this solver
+     * @throws IllegalStateException if a new snapshot could not be written, stopping the process
+     */
+    public SolverTrace<V,C> resume (final Path from, final Callbacks<V,C> callbacks) throws IOException {
+        if (checkpoint == null) {
+            throw new IllegalStateException("solver built without checkpoint");
+        }
+
+        final Checkpoint.Restored<V,C> restored = checkpoint.read(from, problem, steps, newTrace());
+        return doTrace(
+            restored.random, true, callbacks, restored.generation, restored.population, restored.trace);
     }
 
     // ===============================
     // === INTERNAL IMPLEMENTATION ===
 
     private SolverTrace<V,C> doTrace (
-        final Random random, final boolean traceOptions, final Solver.Callbacks<V,C> callbacks)
+        final Random random, final boolean traceOptions, final Solver.Callbacks<V,C> callbacks, final int firstGen,
+        final Population<C> initial, final SolverTrace<V,C> trace)
     {
-        final SolverTrace<V,C> trace = new SolverTrace<V,C>(problem);
-
-        List<C> population = new ArrayList<C>();
-        List<C> buffer = new ArrayList<C>();
+        Population<C> population = initial;
+        Population<C> buffer = new Population<C>(problem);
 
         // Notify of the start of the process
         callbacks.startProcess(this);
 
-        int gen = 0;
+        int gen = firstGen;
         while (!callbacks.shouldStop()) {
 
             // Notify the start of the generation
-            callbacks.startGeneration(gen, Collections.unmodifiableList(population));
+            callbacks.startGeneration(gen, Population.unmodifiable(population));
 
             // Apply every step
             long time = System.nanoTime();
-            for (final SolverStep<V,C> step : steps) {
-                // Notify the start of the step
-                callbacks.startStep(step, Collections.unmodifiableList(population));
-
-                final List<C> input = population;
-                final List<C> output = buffer;
-                output.clear();
-
-                step.apply(problem, Collections.unmodifiableList(input), random, gen, output);
-
-                // Swap both
-                population = output;
-                buffer = input;
-
-                // Notify the end of the step
-                callbacks.endStep(Collections.unmodifiableList(population));
+            final Population<C> next = applySteps(population, buffer, random, gen, callbacks, trace);
+            if (next != population) {
+                buffer = population;
+                population = next;
             }
             time = System.nanoTime() - time;
 
@@ -91,8 +121,17 @@ public final class Solver<V, C extends Chromosome<C>> {
             gen++;
             trace.generation(population, time);
 
+            // Save a snapshot of the process
+            if (checkpoint != null && gen % checkpoint.interval == 0) {
+                try {
+                    checkpoint.write(gen, random, population, trace, steps);
+                } catch (final IOException exc) {
+                    throw new IllegalStateException("could not write checkpoint at generation " + gen, exc);
+                }
+            }
+
             // Notify the end of the generation
-            callbacks.endGeneration(Collections.unmodifiableList(population));
+            callbacks.endGeneration(Population.unmodifiable(population));
         }
 
         // Notify of the end of the process
@@ -101,6 +140,77 @@ public final class Solver<V, C extends Chromosome<C>> {
         return trace;
     }
 
+    /**
+     * Applies every step of this solver once, using two populations alternatively as input and output.
+     * 
+     * @param population Population at the start of the generation
+     * @param buffer Spare population, whose contents are discarded
+     * @param random The random generator to use
+     * @param gen Current generation number
+     * @param callbacks Callbacks to notify of every step, or <tt>null</tt>
+     * @param trace Trace on which the metrics of every step are recorded, or <tt>null</tt>
+     * @return Whichever of <tt>population</tt> or <tt>buffer</tt> holds the result of the last step
+     */
+    /* package */Population<C> applySteps (
+        final Population<C> population, final Population<C> buffer, final Random random, final int gen,
+        final Solver.Callbacks<V,C> callbacks, final SolverTrace<V,C> trace)
+    {
+        Population<C> current = population;
+        Population<C> spare = buffer;
+
+        final StepMetrics metrics = (trace == null) ? null : trace.metrics(steps);
+        if (metrics != null) {
+            metrics.startGeneration();
+        }
+
+        for (int i = 0; i < steps.size(); i++) {
+            final SolverStep<V,C> step = steps.get(i);
+
+            // Notify the start of the step
+            if (callbacks != null) {
+                callbacks.startStep(step, Population.unmodifiable(current));
+            }
+
+            final Population<C> input = current;
+            final Population<C> output = spare;
+            output.clear();
+
+            final Population<C> unmodifiableInput = Population.unmodifiable(input);
+            if (metrics == null) {
+                step.apply(problem, unmodifiableInput, random, gen, output);
+
+            } else {
+                final long evaluations = input.getEvaluations() + output.getEvaluations();
+                final long bytes = StepMetrics.allocatedBytes();
+                final long time = System.nanoTime();
+
+                step.apply(problem, unmodifiableInput, random, gen, output);
+
+                final long stepTime = System.nanoTime() - time;
+                final long stepBytes =
+                    (bytes == StepMetrics.UNSUPPORTED) ? bytes : StepMetrics.allocatedBytes() - bytes;
+                final long stepEvaluations = input.getEvaluations() + output.getEvaluations() - evaluations;
+                metrics.record(i, stepTime, stepEvaluations, stepBytes);
+            }
+
+            // Swap both
+            current = output;
+            spare = input;
+
+            // Notify the end of the step
+            if (callbacks != null) {
+                callbacks.endStep(Population.unmodifiable(current));
+            }
+        }
+
+        return current;
+    }
+
+    /** @return A new empty trace for a process of this solver */
+    /* package */SolverTrace<V,C> newTrace () {
+        return new SolverTrace<V,C>(problem, traceWindow);
+    }
+
     public Problem<V,C> getProblem () {
         return problem;
     }
@@ -133,6 +243,12 @@ public final class Solver<V, C extends Chromosome<C>> {
         /** List of steps */
         private List<SolverStep<V,C>> steps = new ArrayList<SolverStep<V,C>>(4);
 
+        /** Periodic snapshots, if any */
+        private Checkpoint<V,C> checkpoint = null;
+
+        /** Number of generations kept on the heap by the traces */
+        private int traceWindow = ColumnStore.DEFAULT_WINDOW;
+
         /** Creates a new problem solver builder */
         /* package */Builder (final Problem<V,C> problem) {
             this.problem = problem;
@@ -157,19 +273,100 @@ public final class Solver<V, C extends Chromosome<C>> {
             return this;
         }
 
+        /**
+         * Makes the solver write a snapshot of the process periodically, from which it can be
+         * {@link Solver#resume resumed} later. Processes with checkpoints must use a {@link XorShiftRandom} or a
+         * {@link SplitMixRandom}. If a snapshot cannot be written, the process stops with an
+         * {@link IllegalStateException}, so it never runs without the snapshots it was built with.
+         * 
+         * @param file File the snapshots are written to
+         * @param interval Number of generations between snapshots
+         * @param codec Codec of the chromosomes
+         * @return <tt>this</tt>
+         */
+        public Builder<V,C> checkpoint (final Path file, final int interval, final ChromosomeCodec<C> codec) {
+            if (steps == null) {
+                throw new IllegalStateException("already used");
+            }
+            if (file == null) {
+                throw new NullPointerException("file");
+            }
+            if (codec == null) {
+                throw new NullPointerException("codec");
+            }
+            if (interval < 1) {
+                throw new IllegalArgumentException("invalid checkpoint interval: " + interval);
+            }
+
+            checkpoint = new Checkpoint<V,C>(file, interval, codec);
+            return this;
+        }
+
+        /**
+         * Sets the number of generations whose summaries and {@link StepMetrics metrics} are kept on the heap by the
+         * traces of the solver. Older generations are spilled to a temporary file, a whole window at a time, so the
+         * window is limited by the size of a mapped block of the summaries, {@link SolverTrace#MAX_WINDOW}, and of
+         * the metrics, which have three columns per step. Defaults to 65536 generations.
+         * 
+         * @param generations Number of generations kept on the heap
+         * @return <tt>this</tt>
+         */
+        public Builder<V,C> traceWindow (final int generations) {
+            if (steps == null) {
+                throw new IllegalStateException("already used");
+            }
+            if (generations < 1 || generations > SolverTrace.MAX_WINDOW) {
+                throw new IllegalArgumentException("invalid trace window: " + generations);
+            }
+
+            traceWindow = generations;
+            return this;
+        }
+
         /**
          * Constructs a {@link Solver} using the steps specified in this builder.
          * 
          * @return A new <tt>ProblemSolver</tt> that uses the specified steps.
+         * @throws IllegalArgumentException if the trace window is too large for the metrics of that many steps
          */
         public Solver<V,C> build () {
             if (steps == null) {
                 throw new IllegalStateException("already used");
             }
+            if (traceWindow > ColumnStore.maxWindow(StepMetrics.COLUMNS * steps.size())) {
+                throw new IllegalArgumentException("trace window too large for " + steps.size() + " steps: "
+                    + traceWindow);
+            }
 
             final List<SolverStep<V,C>> unmsteps = this.steps;
             steps = null;
-            return new Solver<V,C>(problem, Collections.unmodifiableList(unmsteps));
+            return new Solver<V,C>(problem, Collections.unmodifiableList(unmsteps), checkpoint, traceWindow);
+        }
+
+        /**
+         * Constructs a {@link SteadyStateSolver} that uses the steps specified in this builder to breed the offspring
+         * of every iteration. The steps should not include any selection or generation step, as the steady-state solver
+         * selects the parents and creates the initial population by itself.
+         * 
+         * @param populationSize Size of the population
+         * @param offspring Number of parents selected on every iteration
+         * @param tournamentSize Size of the tournament used to select parents
+         * @return A new <tt>SteadyStateSolver</tt> that uses the specified steps.
+         */
+        public SteadyStateSolver<V,C> buildSteadyState (
+            final int populationSize, final int offspring, final int tournamentSize)
+        {
+            if (populationSize < 1) {
+                throw new IllegalArgumentException("invalid population size: " + populationSize);
+            }
+            if (offspring < 1) {
+                throw new IllegalArgumentException("invalid number of offspring: " + offspring);
+            }
+            if (tournamentSize < 1) {
+                throw new IllegalArgumentException("invalid tournament size: " + tournamentSize);
+            }
+
+            return new SteadyStateSolver<V,C>(build(), populationSize, offspring, tournamentSize);
         }
     }
 
@@ -206,7 +403,7 @@ public final class Solver<V, C extends Chromosome<C>> {
          * @param gen Number of the new generation
          * @param population The population before the processing
          */
-        public abstract void startGeneration (int gen, List<C> population);
+        public abstract void startGeneration (int gen, Population<C> population);
 
         /**
          * Notifies this callbacks that a {@link SolverStep processing step} is starting.
@@ -214,21 +411,21 @@ public final class Solver<V, C extends Chromosome<C>> {
          * @param step The step in use
          * @param population The population before the processing
          */
-        public abstract void startStep (SolverStep<V,C> step, List<C> population);
+        public abstract void startStep (SolverStep<V,C> step, Population<C> population);
 
         /**
          * Notifies this callbacks that the last {@link SolverStep processing step} has ended.
          * 
          * @param population The population after the processing
          */
-        public abstract void endStep (List<C> population);
+        public abstract void endStep (Population<C> population);
 
         /**
          * Notifies this callbacks that the last generation processing has ended.
          * 
          * @param population The population after the processing
          */
-        public abstract void endGeneration (List<C> population);
+        public abstract void endGeneration (Population<C> population);
 
         /**
          * Notifies this callbacks that the processing has fully ended.
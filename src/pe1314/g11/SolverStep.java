@@ -1,6 +1,5 @@
 package pe1314.g11;
 
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -14,6 +13,9 @@ public interface SolverStep<V, C extends Chromosome<C>> {
 
     /**
      * Processes the <tt>input</tt> chromosome population and returns a new chromosome population.
+     * <p>
+     * Chromosomes that reach the <tt>output</tt> unchanged should be added with
+     * {@link Population#addFrom(Population, int)}, so their fitness is not evaluated again by later steps.
      * 
      * @param problem Problem being solved
      * @param input Original population to be processed
@@ -21,5 +23,6 @@ public interface SolverStep<V, C extends Chromosome<C>> {
      * @param generation The generation of the
      * @param output Population after processing
      */
-    public abstract void apply (Problem<V,C> problem, List<C> input, Random random, int generation, List<C> output);
+    public abstract void apply (
+        Problem<V,C> problem, Population<C> input, Random random, int generation, Population<C> output);
 }
@@ -1,21 +1,33 @@
 package pe1314.g11;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Class that represents the process of finding a solution executed within a solver.
  * <p>
  * This class is internally mutable, but clients do not have access to mutating methods, and it will not be mutated
  * after being returned. This class can be considered immutable from the eyes of clients.
+ * <p>
+ * The summary of every generation is stored on primitive columns instead of one object per generation. Only the last
+ * generations (up to a <i>window</i> given on construction) are kept on the heap, and older ones are spilled to a
+ * memory-mapped temporary file, so the memory used by a trace does not grow with the length of the process. The
+ * history can be read without creating any object with {@link #visit}, or as a list of {@link Summary} objects
+ * created on demand with {@link #getSummaries()}. The temporary file is only deleted when the trace is
+ * {@link #close() closed}, or when the virtual machine exits, so processes that run many solvers should close every
+ * trace once they are done with it.
  * 
  * @author Daniel Escoz Solana
  * @author Pedro Morgado Alarc&oacute;n
  * @param <V> Type of the values
  * @param <C> Type of the chromosomes
  */
-public final class SolverTrace<V, C extends Chromosome<C>> {
+public final class SolverTrace<V, C extends Chromosome<C>> implements Closeable {
 
     /** The problem being traced */
     private final Problem<V,C> problem;
@@ -23,22 +35,64 @@ public final class SolverTrace<V, C extends Chromosome<C>> {
     /** The best chromosome seen */
     private C best = null;
 
-    /** List of generation summaries */
-    private final List<Summary> summaries = new ArrayList<Summary>();
+    /** Fitness of the best chromosome seen */
+    private double bestFitness = Double.NaN;
+
+    /** Column of the population size of every generation */
+    private static final int COL_SIZE = 0;
+
+    /** Maximum number of generations kept on the heap, so that a spilled block of the 5 columns can be mapped */
+    public static final int MAX_WINDOW = ColumnStore.maxWindow(5);
+
+    /** Columns of the fitness statistics of every generation */
+    private static final int COL_MAX = 0;
+    private static final int COL_MIN = 1;
+    private static final int COL_AVERAGE = 2;
+    private static final int COL_DEVIATION = 3;
+
+    /** Summaries of every generation */
+    private final ColumnStore summaries;
 
+    /** Metrics of every step, created by the first generation that records them */
+    private StepMetrics metrics = null;
+
+    /** Traces of the islands whose summaries were merged into this one */
+    private final List<SolverTrace<V,C>> islands = new ArrayList<SolverTrace<V,C>>();
+
+    /**
+     * Creates a trace that keeps the summaries of the last 65536 generations on the heap.
+     * 
+     * @param problem The problem being traced
+     */
     public SolverTrace (final Problem<V,C> problem) {
+        this(problem, ColumnStore.DEFAULT_WINDOW);
+    }
+
+    /**
+     * Creates a trace that keeps the summaries of the last <tt>window</tt> generations on the heap, spilling older
+     * ones to disk.
+     * 
+     * @param problem The problem being traced
+     * @param window Number of generations kept on the heap, up to {@link #MAX_WINDOW}
+     */
+    public SolverTrace (final Problem<V,C> problem, final int window) {
         if (problem == null) {
             throw new NullPointerException("problem");
         }
+        if (window < 1 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("invalid window: " + window);
+        }
 
         this.problem = problem;
+        this.summaries = new ColumnStore(1, 4, window);
     }
 
     /**
+     * Adds the summary of a generation to this trace, using the fitness values known by the population.
      * 
      * @return <tt>this</tt>
      */
-    /* package */SolverTrace<V,C> generation (final List<C> population, final long nanoseconds) {
+    /* package */SolverTrace<V,C> generation (final Population<C> population, final long nanoseconds) {
         final int len = population.size();
 
         double sum = 0;
@@ -46,12 +100,13 @@ public final class SolverTrace<V, C extends Chromosome<C>> {
         double max = Double.NEGATIVE_INFINITY;
         double min = Double.POSITIVE_INFINITY;
 
-        for (final C chromo : population) {
-            final double fitness = problem.fitness(chromo);
+        for (int i = 0; i < len; i++) {
+            final double fitness = population.fitness(i);
 
             // Set this as the best if better than the old best
-            if (best == null || fitness > problem.fitness(best)) {
-                best = chromo;
+            if (best == null || problem.type().compare(fitness, bestFitness) < 0) {
+                best = population.get(i);
+                bestFitness = fitness;
             }
 
             max = Math.max(max, fitness);
@@ -60,10 +115,136 @@ public final class SolverTrace<V, C extends Chromosome<C>> {
             sqsum += fitness * fitness;
         }
 
-        summaries.add(new Summary(summaries.size(), max, min, sum / len, Math.sqrt(Math.abs(sqsum / len - sum / len))));
+        summary(len, max, min, sum, sqsum);
         return this;
     }
 
+    /**
+     * Adds the summary of a generation to this trace from statistics already computed by the solver, for solvers that
+     * keep them up to date incrementally instead of going through the whole population.
+     * 
+     * @param len Size of the population
+     * @param max Maximum fitness of the population
+     * @param min Minimum fitness of the population
+     * @param sum Sum of the fitness of every member
+     * @param sqsum Sum of the squared fitness of every member
+     * @param bestChromo Best member of the population
+     * @param bestFit Fitness of <tt>bestChromo</tt>
+     * @return <tt>this</tt>
+     */
+    /* package */SolverTrace<V,C> generation (
+        final int len, final double max, final double min, final double sum, final double sqsum, final C bestChromo,
+        final double bestFit)
+    {
+        if (bestChromo != null && (best == null || problem.type().compare(bestFit, bestFitness) < 0)) {
+            best = bestChromo;
+            bestFitness = bestFit;
+        }
+
+        summary(len, max, min, sum, sqsum);
+        return this;
+    }
+
+    /**
+     * Adds the summary of a generation to this trace by merging the summaries of the same generation on the traces of
+     * every island, as if all their populations were a single one. The island traces are remembered by this trace.
+     * 
+     * @param islandTraces Traces of every island, all of which have a summary for the next generation of this trace
+     * @return <tt>this</tt>
+     */
+    /* package */SolverTrace<V,C> merge (final List<SolverTrace<V,C>> islandTraces) {
+        if (islands.isEmpty()) {
+            islands.addAll(islandTraces);
+        }
+
+        final int gen = summaries.size();
+
+        int len = 0;
+        double sum = 0;
+        double sqsum = 0;
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+
+        for (final SolverTrace<V,C> island : islandTraces) {
+            final ColumnStore summary = island.summaries;
+            final int size = (int) summary.getLong(gen, COL_SIZE);
+            final double avg = summary.getDouble(gen, COL_AVERAGE);
+            final double stdev = summary.getDouble(gen, COL_DEVIATION);
+
+            len += size;
+            sum += avg * size;
+            sqsum += (stdev * stdev + avg * avg) * size;
+            max = Math.max(max, summary.getDouble(gen, COL_MAX));
+            min = Math.min(min, summary.getDouble(gen, COL_MIN));
+
+            if (island.best != null && (best == null || problem.type().compare(island.bestFitness, bestFitness) < 0)) {
+                best = island.best;
+                bestFitness = island.bestFitness;
+            }
+        }
+
+        summary(len, max, min, sum, sqsum);
+        return this;
+    }
+
+    /**
+     * Restores the best chromosome of this trace from a checkpoint. Must be called before any generation is added.
+     * 
+     * @param bestChromo Best chromosome seen, or <tt>null</tt>
+     * @param bestFit Fitness of <tt>bestChromo</tt>
+     */
+    /* package */void restore (final C bestChromo, final double bestFit) {
+        if (summaries.size() != 0) {
+            throw new IllegalStateException("trace already started");
+        }
+
+        best = bestChromo;
+        bestFitness = bestFit;
+    }
+
+    /**
+     * Restores the summary of the next generation from a checkpoint.
+     * 
+     * @param size Size of the population
+     * @param max Maximum fitness
+     * @param min Minimum fitness
+     * @param avg Average fitness
+     * @param stdev Standard deviation of the fitness
+     */
+    /* package */void restore (
+        final int size, final double max, final double min, final double avg, final double stdev)
+    {
+        append(size, max, min, avg, stdev);
+    }
+
+    /**
+     * Gets the metrics of the given steps, creating them if this is the first generation to record them.
+     * 
+     * @param steps Steps being measured
+     * @return The metrics of every step
+     */
+    /* package */StepMetrics metrics (final List<? extends SolverStep<V,C>> steps) {
+        if (metrics == null) {
+            metrics = new StepMetrics(steps, summaries.size(), summaries.window());
+        }
+        return metrics;
+    }
+
+    /** Appends the summary of the next generation */
+    private void summary (final int len, final double max, final double min, final double sum, final double sqsum) {
+        final double avg = sum / len;
+        append(len, max, min, avg, Math.sqrt(Math.abs(sqsum / len - avg * avg)));
+    }
+
+    private void append (final int size, final double max, final double min, final double avg, final double stdev) {
+        summaries.addRow();
+        summaries.setLong(COL_SIZE, size);
+        summaries.setDouble(COL_MAX, max);
+        summaries.setDouble(COL_MIN, min);
+        summaries.setDouble(COL_AVERAGE, avg);
+        summaries.setDouble(COL_DEVIATION, stdev);
+    }
+
     /**
      * Gets the best chromosome seen by this trace.
      * 
@@ -73,8 +254,141 @@ public final class SolverTrace<V, C extends Chromosome<C>> {
         return best;
     }
 
+    /**
+     * Gets the fitness of the best chromosome seen by this trace.
+     * 
+     * @return The fitness of the best chromosome seen, or <tt>NaN</tt> if none was seen
+     */
+    public double getBestSeenFitness () {
+        return bestFitness;
+    }
+
+    /**
+     * Gets the number of generations traced.
+     * 
+     * @return Number of generations traced
+     */
+    public int getGenerations () {
+        return summaries.size();
+    }
+
+    /**
+     * Gets a view of the summaries of every generation. Summaries are created every time they are retrieved from the
+     * list, so {@link #visit} should be preferred to go through long traces.
+     * 
+     * @return An unmodifiable list with the summaries of every generation
+     */
     public List<Summary> getSummaries () {
-        return Collections.unmodifiableList(summaries);
+        return new SummaryList();
+    }
+
+    /**
+     * Streams the summary of every generation to a visitor, in order, without creating any object.
+     * 
+     * @param visitor Visitor that receives every generation
+     */
+    public void visit (final Visitor visitor) {
+        visit(0, summaries.size(), visitor);
+    }
+
+    /**
+     * Streams the summaries of a range of generations to a visitor, in order, without creating any object.
+     * 
+     * @param from First generation to visit, inclusive
+     * @param to Last generation to visit, exclusive
+     * @param visitor Visitor that receives every generation
+     */
+    public void visit (final int from, final int to, final Visitor visitor) {
+        if (from < 0 || to > summaries.size() || from > to) {
+            throw new IndexOutOfBoundsException("invalid range [" + from + ", " + to + ") for " + summaries.size()
+                + " generations");
+        }
+
+        for (int gen = from; gen < to; gen++) {
+            visitor.generation(
+                gen, (int) summaries.getLong(gen, COL_SIZE), summaries.getDouble(gen, COL_MAX),
+                summaries.getDouble(gen, COL_MIN), summaries.getDouble(gen, COL_AVERAGE),
+                summaries.getDouble(gen, COL_DEVIATION));
+        }
+    }
+
+    /**
+     * Gets the time, evaluations and allocations of every step on every generation. Traces merged from islands do not
+     * have metrics of their own, but every {@link #getIslandTraces() island trace} has.
+     * 
+     * @return The metrics of every step, or <tt>null</tt> if no generation recorded them
+     */
+    public StepMetrics getStepMetrics () {
+        return metrics;
+    }
+
+    /**
+     * Gets the traces of every island, if this trace was produced by an {@link IslandSolver}.
+     * 
+     * @return The traces of every island, or an empty list if this trace does not come from an island model
+     */
+    public List<SolverTrace<V,C>> getIslandTraces () {
+        return Collections.unmodifiableList(islands);
+    }
+
+    /**
+     * Deletes the temporary files of this trace, of its step metrics and of the traces of its islands. Generations
+     * kept on the heap can still be read, but older ones cannot. Closing an already closed trace does nothing.
+     * 
+     * @throws IOException if a temporary file could not be closed
+     */
+    @Override
+    public void close () throws IOException {
+        summaries.close();
+        if (metrics != null) {
+            metrics.close();
+        }
+        for (final SolverTrace<V,C> island : islands) {
+            island.close();
+        }
+    }
+
+    /**
+     * Receiver of the summaries of a trace, streamed by {@link SolverTrace#visit}.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    public interface Visitor {
+
+        /**
+         * Receives the summary of a generation.
+         * 
+         * @param gen Number of the generation
+         * @param size Size of the population
+         * @param max Maximum fitness
+         * @param min Minimum fitness
+         * @param avg Average fitness
+         * @param stdev Standard deviation of the fitness
+         */
+        public abstract void generation (int gen, int size, double max, double min, double avg, double stdev);
+    }
+
+    /**
+     * Unmodifiable view of the summaries of this trace, creating them on demand.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    private final class SummaryList extends AbstractList<Summary> implements RandomAccess {
+
+        @Override
+        public Summary get (final int gen) {
+            return new Summary(
+                gen, (int) summaries.getLong(gen, COL_SIZE), summaries.getDouble(gen, COL_MAX),
+                summaries.getDouble(gen, COL_MIN), summaries.getDouble(gen, COL_AVERAGE),
+                summaries.getDouble(gen, COL_DEVIATION));
+        }
+
+        @Override
+        public int size () {
+            return summaries.size();
+        }
     }
 
     /**
@@ -86,14 +400,17 @@ public final class SolverTrace<V, C extends Chromosome<C>> {
     public final static class Summary {
 
         private final int generation;
+        private final int populationSize;
         private final double max;
         private final double min;
         private final double average;
         private final double standardDeviation;
 
-        /* protected */Summary (final int gen, final double max, final double min, final double avg, final double stdev)
+        /* protected */Summary (
+            final int gen, final int size, final double max, final double min, final double avg, final double stdev)
         {
             this.generation = gen;
+            this.populationSize = size;
             this.max = max;
             this.min = min;
             this.average = avg;
@@ -104,6 +421,10 @@ public final class SolverTrace<V, C extends Chromosome<C>> {
             return generation;
         }
 
+        public int getPopulationSize () {
+            return populationSize;
+        }
+
         public double getMax () {
             return max;
         }
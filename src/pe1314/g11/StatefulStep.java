@@ -0,0 +1,25 @@
+package pe1314.g11;
+
+/**
+ * A {@link SolverStep} that remembers a population between generations, which must be saved on solver checkpoints in
+ * order to resume the process exactly.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
+public interface StatefulStep<V, C extends Chromosome<C>> extends SolverStep<V,C> {
+
+    /**
+     * @return The population remembered by this step, or <tt>null</tt> if there is none yet
+     */
+    public abstract Population<C> getState ();
+
+    /**
+     * Replaces the population remembered by this step with one read from a checkpoint.
+     * 
+     * @param state The population to remember, or <tt>null</tt>
+     */
+    public abstract void setState (Population<C> state);
+}
@@ -0,0 +1,173 @@
+package pe1314.g11;
+
+import java.util.Random;
+
+import pe1314.g11.util.IndexedHeap;
+
+/**
+ * A solver that replaces only a few chromosomes of its population on each iteration, instead of building a whole new
+ * generation.
+ * <p>
+ * On every iteration, a small mating pool is filled by tournament selection and the steps of a {@link Solver} are
+ * applied to it, breeding the offspring. Every offspring then replaces the worst member of the population if it is at
+ * least as fit. The population is modified in place and kept in a pair of {@link IndexedHeap indexed heaps}, so an
+ * iteration costs <tt>O(k log n)</tt> for <tt>k</tt> offspring, plus their evaluation.
+ * <p>
+ * Each iteration is reported to the callbacks and the trace as a generation. The statistics of the trace are kept up
+ * to date incrementally.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values of the solved problem
+ * @param <C> Type of the chromosomes to be processed
+ */
+public final class SteadyStateSolver<V, C extends Chromosome<C>> {
+
+    /** Solver whose steps breed the offspring from the mating pool */
+    private final Solver<V,C> breeder;
+
+    /** Size of the population */
+    private final int populationSize;
+
+    /** Number of parents selected on every iteration */
+    private final int offspring;
+
+    /** Size of the tournament used to select parents */
+    private final int tournamentSize;
+
+    /**
+     * Creates a steady-state solver.
+     * 
+     * @param breeder Solver whose steps breed the offspring from the mating pool
+     * @param populationSize Size of the population
+     * @param offspring Number of parents selected on every iteration
+     * @param tournamentSize Size of the tournament used to select parents
+     */
+    /* package */SteadyStateSolver (
+        final Solver<V,C> breeder, final int populationSize, final int offspring, final int tournamentSize)
+    {
+        this.breeder = breeder;
+        this.populationSize = populationSize;
+        this.offspring = offspring;
+        this.tournamentSize = tournamentSize;
+    }
+
+    // ==============================
+    // === PUBLIC SOLVING METHODS ===
+
+    /**
+     * Solves a specific problem using this solver.
+     * 
+     * @param random The random generator to use
+     * @param callbacks The callbacks to use
+     * @return The trace of the process, with a summary per iteration
+     */
+    public SolverTrace<V,C> solve (final Random random, final Solver.Callbacks<V,C> callbacks) {
+        final Problem<V,C> problem = getProblem();
+        final boolean maximization = problem.type() == Problem.Type.MAXIMIZATION;
+        final SolverTrace<V,C> trace = breeder.newTrace();
+
+        final Population<C> population = new Population<C>(problem, populationSize);
+        final Population<C> parents = new Population<C>(problem, offspring);
+        final Population<C> buffer = new Population<C>(problem, offspring);
+
+        final IndexedHeap<C> worstHeap = new IndexedHeap<C>(population, true);
+        final IndexedHeap<C> bestHeap = new IndexedHeap<C>(population, false);
+
+        double sum = 0;
+        double sqsum = 0;
+
+        // Notify of the start of the process
+        callbacks.startProcess(breeder);
+
+        int iter = 0;
+        while (!callbacks.shouldStop()) {
+
+            // Notify the start of the iteration
+            callbacks.startGeneration(iter, Population.unmodifiable(population));
+
+            if (population.isEmpty()) {
+                // Initial population
+                for (int i = 0; i < populationSize; i++) {
+                    population.add(problem.random(random));
+                }
+                population.evaluate();
+
+            } else {
+                // Breed the offspring
+                parents.clear();
+                for (int i = 0; i < offspring; i++) {
+                    parents.addFrom(population, tournament(population, random));
+                }
+                final Population<C> children = breeder.applySteps(parents, buffer, random, iter, callbacks, trace);
+
+                // Replace the worst members with the offspring
+                for (int i = 0; i < children.size(); i++) {
+                    final double fit = children.fitness(i);
+                    final int worst = worstHeap.peek();
+                    final double worstFit = population.fitness(worst);
+
+                    if (problem.type().compare(fit, worstFit) <= 0) {
+                        population.set(worst, children.get(i), fit);
+                        worstHeap.update(worst);
+                        bestHeap.update(worst);
+
+                        sum += fit - worstFit;
+                        sqsum += fit * fit - worstFit * worstFit;
+                    }
+                }
+            }
+
+            // Recompute everything from scratch once in a while, so rounding errors do not build up
+            if (iter % populationSize == 0) {
+                worstHeap.build();
+                bestHeap.build();
+
+                sum = 0;
+                sqsum = 0;
+                for (int i = 0; i < population.size(); i++) {
+                    final double fit = population.fitness(i);
+                    sum += fit;
+                    sqsum += fit * fit;
+                }
+            }
+
+            // Update iteration
+            iter++;
+
+            final int best = bestHeap.peek();
+            final double bestFit = population.fitness(best);
+            final double worstFit = population.fitness(worstHeap.peek());
+            trace.generation(
+                population.size(), maximization ? bestFit : worstFit, maximization ? worstFit : bestFit, sum, sqsum,
+                population.get(best), bestFit);
+
+            // Notify the end of the iteration
+            callbacks.endGeneration(Population.unmodifiable(population));
+        }
+
+        // Notify of the end of the process
+        callbacks.endProcess(trace);
+
+        return trace;
+    }
+
+    public Problem<V,C> getProblem () {
+        return breeder.getProblem();
+    }
+
+    // ===============================
+    // === INTERNAL IMPLEMENTATION ===
+
+    /** @return Position of the winner of a tournament among random members of <tt>population</tt> */
+    private int tournament (final Population<C> population, final Random random) {
+        int best = random.nextInt(population.size());
+        for (int j = 1; j < tournamentSize; j++) {
+            final int contender = random.nextInt(population.size());
+            if (population.compare(contender, best) < 0) {
+                best = contender;
+            }
+        }
+        return best;
+    }
+}
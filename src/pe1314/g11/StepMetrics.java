@@ -0,0 +1,245 @@
+package pe1314.g11;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Time, fitness evaluations and memory used by every step of a solver on every generation.
+ * <p>
+ * Metrics are kept on primitive columns with one row per generation and three columns per step, so recording them
+ * costs a couple of clock reads per step and no allocation besides the occasional growth of the columns. Like the
+ * summaries of the trace, only the rows of the last generations are kept on the heap. Generations are
+ * numbered as in {@link SolverTrace.Summary#getGeneration()}, starting at {@link #getFirstGeneration()}, which is not
+ * <tt>0</tt> for resumed processes.
+ * <p>
+ * Evaluations are those counted by the input and output populations of the step (see
+ * {@link Population#getEvaluations()}), so they only include the work of this solver, even when other solvers, like
+ * the other islands of an {@link IslandSolver}, evaluate the same problem at the same time. Allocated bytes are read
+ * from the {@link java.lang.management.ThreadMXBean ThreadMXBean} of the solver thread, so they exclude the
+ * allocations of any other thread, notably the fork-join workers of a
+ * {@link pe1314.g11.util.ParallelEvaluationStep ParallelEvaluationStep}, and are {@link #UNSUPPORTED} if the virtual
+ * machine cannot measure them.
+ * <p>
+ * Like {@link SolverTrace}, this class is only mutated by the solver, and will not be mutated after being returned.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class StepMetrics {
+
+    /** Value returned for metrics that cannot be measured on this virtual machine */
+    public static final long UNSUPPORTED = -1L;
+
+    /** Offsets of the columns of every step */
+    private static final int COL_NANOS = 0;
+    private static final int COL_EVALUATIONS = 1;
+    private static final int COL_BYTES = 2;
+    /* package */static final int COLUMNS = 3;
+
+    /** Names of the measured steps */
+    private final List<String> names;
+
+    /** Generation of the first row */
+    private final int first;
+
+    /** Metrics of every step, on columns <tt>step * COLUMNS + COL_*</tt> */
+    private final ColumnStore rows;
+
+    /** Totals of every step, over all generations */
+    private final long[] totalNanos;
+    private final long[] totalEvaluations;
+    private final long[] totalBytes;
+
+    /**
+     * @param steps Steps being measured
+     * @param first Number of the first generation measured
+     * @param window Number of generations kept on the heap
+     */
+    /* package */StepMetrics (final List<? extends SolverStep<?,?>> steps, final int first, final int window) {
+        final List<String> stepNames = new ArrayList<String>(steps.size());
+        for (final SolverStep<?,?> step : steps) {
+            final String name = step.getClass().getSimpleName();
+            stepNames.add(name.isEmpty() ? step.getClass().getName() : name);
+        }
+
+        this.names = Collections.unmodifiableList(stepNames);
+        this.first = first;
+
+        rows = new ColumnStore(COLUMNS * steps.size(), 0, window);
+        totalNanos = new long[steps.size()];
+        totalEvaluations = new long[steps.size()];
+        totalBytes = new long[steps.size()];
+    }
+
+    /** Starts a new row of metrics */
+    /* package */void startGeneration () {
+        rows.addRow();
+    }
+
+    /**
+     * Records the metrics of a step on the last started generation.
+     * 
+     * @param step Index of the step
+     * @param stepNanos Nanoseconds used by the step
+     * @param stepEvaluations Evaluations done by the step
+     * @param stepBytes Bytes allocated by the step, or {@link #UNSUPPORTED}
+     */
+    /* package */void record (final int step, final long stepNanos, final long stepEvaluations, final long stepBytes) {
+        rows.setLong(step * COLUMNS + COL_NANOS, stepNanos);
+        rows.setLong(step * COLUMNS + COL_EVALUATIONS, stepEvaluations);
+        rows.setLong(step * COLUMNS + COL_BYTES, stepBytes);
+
+        totalNanos[step] += stepNanos;
+        totalEvaluations[step] += stepEvaluations;
+        totalBytes[step] = (stepBytes == UNSUPPORTED) ? UNSUPPORTED : totalBytes[step] + stepBytes;
+    }
+
+    /** Closes the spill file of the metrics, as in {@link ColumnStore#close()} */
+    /* package */void close () throws IOException {
+        rows.close();
+    }
+
+    /** @return The metric of the given generation, step and column */
+    private long get (final int gen, final int step, final int column) {
+        if (gen < first || gen >= first + rows.size()) {
+            throw new IndexOutOfBoundsException("generation " + gen + " not in [" + first + ", "
+                + (first + rows.size()) + ")");
+        }
+        if (step < 0 || step >= names.size()) {
+            throw new IndexOutOfBoundsException("step " + step + " not in [0, " + names.size() + ")");
+        }
+
+        return rows.getLong(gen - first, step * COLUMNS + column);
+    }
+
+    /** @return Number of measured steps */
+    public int getSteps () {
+        return names.size();
+    }
+
+    /**
+     * @param step Index of the step
+     * @return Simple class name of the given step
+     */
+    public String getStepName (final int step) {
+        return names.get(step);
+    }
+
+    /** @return Number of the first generation measured */
+    public int getFirstGeneration () {
+        return first;
+    }
+
+    /** @return Number of generations measured */
+    public int getGenerations () {
+        return rows.size();
+    }
+
+    /**
+     * @param gen Number of the generation
+     * @param step Index of the step
+     * @return Nanoseconds used by the step on the given generation
+     */
+    public long getNanos (final int gen, final int step) {
+        return get(gen, step, COL_NANOS);
+    }
+
+    /**
+     * @param gen Number of the generation
+     * @param step Index of the step
+     * @return Fitness evaluations done by the step on the given generation
+     */
+    public long getEvaluations (final int gen, final int step) {
+        return get(gen, step, COL_EVALUATIONS);
+    }
+
+    /**
+     * @param gen Number of the generation
+     * @param step Index of the step
+     * @return Bytes allocated by the solver thread during the step on the given generation, or {@link #UNSUPPORTED}
+     */
+    public long getAllocatedBytes (final int gen, final int step) {
+        return get(gen, step, COL_BYTES);
+    }
+
+    /**
+     * @param step Index of the step
+     * @return Nanoseconds used by the step on all generations
+     */
+    public long getTotalNanos (final int step) {
+        return totalNanos[step];
+    }
+
+    /**
+     * @param step Index of the step
+     * @return Fitness evaluations done by the step on all generations
+     */
+    public long getTotalEvaluations (final int step) {
+        return totalEvaluations[step];
+    }
+
+    /**
+     * @param step Index of the step
+     * @return Bytes allocated by the step on all generations, or {@link #UNSUPPORTED}
+     */
+    public long getTotalAllocatedBytes (final int step) {
+        return totalBytes[step];
+    }
+
+    @Override
+    public String toString () {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            sb.append(names.get(i)).append(": ").append(totalNanos[i] / 1000000L).append(" ms, ")
+                .append(totalEvaluations[i]).append(" evaluations, ");
+            if (totalBytes[i] == UNSUPPORTED) {
+                sb.append("? bytes\n");
+            } else {
+                sb.append(totalBytes[i]).append(" bytes\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the number of bytes allocated by the current thread so far. Bytes allocated by the threads it hands work
+     * to, like the workers of a fork-join pool, are not included.
+     * 
+     * @return Bytes allocated by the current thread, or {@link #UNSUPPORTED}
+     */
+    /* package */static long allocatedBytes () {
+        return AllocationCounter.INSTANCE == null ? UNSUPPORTED : AllocationCounter.INSTANCE
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Lazy holder of the thread bean used to read allocated bytes, which is only available on some virtual machines.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    private static final class AllocationCounter {
+
+        /** Thread bean able to measure allocations, or <tt>null</tt> */
+        /* package */static final com.sun.management.ThreadMXBean INSTANCE = lookup();
+
+        private static com.sun.management.ThreadMXBean lookup () {
+            try {
+                final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                if (bean instanceof com.sun.management.ThreadMXBean) {
+                    final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                    if (sunBean.isThreadAllocatedMemorySupported()) {
+                        sunBean.setThreadAllocatedMemoryEnabled(true);
+                        return sunBean;
+                    }
+                }
+            } catch (final LinkageError | UnsupportedOperationException | SecurityException exc) {
+                // Not available on this virtual machine
+            }
+            return null;
+        }
+    }
+}
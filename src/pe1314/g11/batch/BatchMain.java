@@ -0,0 +1,52 @@
+package pe1314.g11.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Command-line entry point that runs a parameter sweep without any GUI.
+ * <p>
+ * Usage: <tt>java pe1314.g11.batch.BatchMain sweep.properties [results.csv]</tt>. Results are written to the standard
+ * output if no output file is given. See {@link SweepSpec} for the format of the sweep file.
+ *
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class BatchMain {
+
+    private BatchMain () {
+    }
+
+    public static void main (final String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: BatchMain <sweep.properties> [results.csv]");
+            System.exit(2);
+            return;
+        }
+
+        final SweepSpec spec;
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            spec = SweepSpec.read(reader);
+        }
+
+        final BatchRunner runner = new BatchRunner(spec);
+        final int failed;
+        try (Writer out =
+            (args.length > 1) ? Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)))
+        {
+            failed = runner.run(out);
+        }
+
+        if (failed > 0) {
+            System.err.println(failed + " of " + spec.getRuns().size() + " runs failed");
+            System.exit(1);
+        }
+    }
+}
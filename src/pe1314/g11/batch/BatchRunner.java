@@ -0,0 +1,572 @@
+package pe1314.g11.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.IslandSolver;
+import pe1314.g11.Problem;
+import pe1314.g11.Solver;
+import pe1314.g11.SolverStep;
+import pe1314.g11.SolverTrace;
+import pe1314.g11.SteadyStateSolver;
+import pe1314.g11.pr1.P1F1Problem;
+import pe1314.g11.pr1.P1F2Problem;
+import pe1314.g11.pr1.P1F3Problem;
+import pe1314.g11.pr1.P1F4Problem;
+import pe1314.g11.pr1.P1F5Problem;
+import pe1314.g11.pr1.VariableDecoder;
+import pe1314.g11.pr2.HeuristicMutationStep;
+import pe1314.g11.pr2.P2Problem;
+import pe1314.g11.pr3.LispChromosome;
+import pe1314.g11.pr3.LispCombinationStep;
+import pe1314.g11.pr3.LispList;
+import pe1314.g11.pr3.LispMutationStep;
+import pe1314.g11.pr3.SpaceInvadersProblem;
+import pe1314.g11.sga.BinaryChromosome;
+import pe1314.g11.sga.CombinationStep;
+import pe1314.g11.sga.DuplicateRemovalStep;
+import pe1314.g11.sga.EvolutionStrategyStepPair;
+import pe1314.g11.sga.GeometricMutationStep;
+import pe1314.g11.sga.InversionStep;
+import pe1314.g11.sga.LengthedMutationStep;
+import pe1314.g11.sga.PermutationChromosome;
+import pe1314.g11.sga.RankingSelectionStep;
+import pe1314.g11.sga.RouletteSelectionStep;
+import pe1314.g11.sga.StochasticUniversalSamplingStep;
+import pe1314.g11.sga.TournamentSelectionStep;
+import pe1314.g11.util.ElitismStepPair;
+import pe1314.g11.util.LimitCallbacks;
+import pe1314.g11.util.ParallelEvaluationStep;
+import pe1314.g11.util.RandomGenerationStep;
+import pe1314.g11.util.SplitMixRandom;
+
+/**
+ * Runs every run of a {@link SweepSpec} on a bounded pool of threads, writing a CSV row for each one as it finishes.
+ * <p>
+ * Runs use the same pipelines as the GUI, except that fitness is evaluated on the thread of the run, as runs are
+ * already executed in parallel. Evaluating every generation on the shared pool too, as the GUI does, is only enabled
+ * by the <tt>parallel.evaluation</tt> key of the sweep, for sweeps with fewer runs at a time than processors. The
+ * <tt>islands</tt> key runs every run on an {@link IslandSolver}, each island with the population size of the run and
+ * a thread of its own, and the <tt>mode</tt> key runs it on a {@link SteadyStateSolver} instead, breeding the variation
+ * steps of the run from a few parents drawn by tournament on every iteration. Rows are written in completion order,
+ * and the <tt>run</tt> column tells the position of every run on the sweep.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class BatchRunner {
+
+    /** Header of the CSV output */
+    public static final String HEADER =
+        "run,problem,selection,crossover,mutation,elite,population,seed,generations,best_fitness,millis,best_value";
+
+    /** The sweep to run */
+    private final SweepSpec spec;
+
+    /** Maximum generations per run */
+    private final int generations;
+
+    /** Maximum generations without improvement per run */
+    private final int stall;
+
+    /** Whether fitness is evaluated on the shared pool instead of the thread of the run */
+    private final boolean parallelEvaluation;
+
+    /** Number of islands of every run, or <tt>1</tt> for a single population */
+    private final int islands;
+
+    /** Number of generations between migrations between islands */
+    private final int interval;
+
+    /** Number of chromosomes sent from every island on each migration */
+    private final int migrants;
+
+    /** Whether runs use a steady-state solver instead of a generational one */
+    private final boolean steady;
+
+    /** Number of parents bred on every iteration of the steady-state solver */
+    private final int offspring;
+
+    /**
+     * @param spec The sweep to run
+     * @throws IllegalArgumentException if the sweep has no stop condition
+     */
+    public BatchRunner (final SweepSpec spec) {
+        this.spec = spec;
+        this.generations = spec.getInt("generations", 100);
+        this.stall = spec.getInt("stall", 0);
+        this.parallelEvaluation = spec.getBoolean("parallel.evaluation", false);
+        this.islands = spec.getInt("islands", 1);
+        this.interval = spec.getInt("islands.interval", 10);
+        this.migrants = spec.getInt("islands.migrants", 2);
+        this.steady = steadyMode();
+        this.offspring = spec.getInt("steady.offspring", 2);
+
+        if (generations <= 0 && stall <= 0) {
+            throw new IllegalArgumentException("no stop condition");
+        }
+        if (islands < 1) {
+            throw new IllegalArgumentException("invalid islands: " + islands);
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("invalid islands.interval: " + interval);
+        }
+        if (migrants < 0) {
+            throw new IllegalArgumentException("invalid islands.migrants: " + migrants);
+        }
+        if (offspring < 1) {
+            throw new IllegalArgumentException("invalid steady.offspring: " + offspring);
+        }
+        if (steady && islands > 1) {
+            throw new IllegalArgumentException("islands need the generational mode");
+        }
+    }
+
+    /**
+     * Executes every run of the sweep, writing the header and a row per successful run. Failed runs are reported on the
+     * standard error.
+     * 
+     * @param out Where the CSV rows are written
+     * @return Number of failed runs
+     * @throws IOException if the rows cannot be written
+     * @throws InterruptedException if interrupted while waiting for the runs
+     */
+    public int run (final Writer out) throws IOException, InterruptedException {
+        final List<RunConfig> runs = spec.getRuns();
+        final int threads = spec.getInt("threads", Runtime.getRuntime().availableProcessors());
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        final CompletionService<String> completion = new ExecutorCompletionService<String>(executor);
+
+        int failed = 0;
+        try {
+            for (final RunConfig run : runs) {
+                completion.submit(new Run(run));
+            }
+
+            out.write(HEADER);
+            out.write('\n');
+            out.flush();
+
+            for (int i = 0; i < runs.size(); i++) {
+                try {
+                    out.write(completion.take().get());
+                    out.write('\n');
+                    out.flush();
+
+                } catch (final ExecutionException exc) {
+                    failed++;
+                    exc.getCause().printStackTrace();
+                }
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return failed;
+    }
+
+    // ===============================
+    // === INTERNAL IMPLEMENTATION ===
+
+    /** @return The CSV row of a run */
+    /* package */String solve (final RunConfig run) throws IOException {
+        final String problem = run.getProblem();
+        final double precision = spec.getDouble("p1.precision", 0.001);
+        final VariableDecoder.Encoding encoding = encoding();
+
+        switch (problem) {
+            case "p1.f1":
+                return solveBinary(run, new P1F1Problem(precision, encoding));
+            case "p1.f2":
+                return solveBinary(run, new P1F2Problem(precision, encoding));
+            case "p1.f3":
+                return solveBinary(run, new P1F3Problem(precision, encoding));
+            case "p1.f4":
+                return solveBinary(run, new P1F4Problem(precision, spec.getInt("p1.f4.n", 4), encoding));
+            case "p1.f5":
+                return solveBinary(run, new P1F5Problem(precision, encoding));
+
+            case "p2.ajuste":
+            case "p2.tai12":
+            case "p2.tai15":
+            case "p2.tai30":
+                return solveHospital(run, problem.substring(3));
+
+            case "p3.a":
+                return solveSpaceInvaders(run, 0);
+            case "p3.b":
+                return solveSpaceInvaders(run, 1);
+        }
+
+        throw new IllegalArgumentException("unknown problem: " + problem);
+    }
+
+    private <V> String solveBinary (final RunConfig run, final Problem<V,BinaryChromosome> problem)
+        throws IOException
+    {
+        final int type = binaryCombinationType();
+        final int points = spec.getInt("p1.crossover.points", 3);
+
+        return solve(run, problem, new Pipeline<V,BinaryChromosome>() {
+            @Override
+            public List<SolverStep<V,BinaryChromosome>> variation () {
+                final List<SolverStep<V,BinaryChromosome>> variation = new ArrayList<>();
+                variation.add(new CombinationStep<V,BinaryChromosome>(run.getCrossover(), type, points));
+                variation.add(new GeometricMutationStep<V,BinaryChromosome>(run.getMutation(), 0));
+                return variation;
+            }
+
+            @Override
+            public List<SolverStep<V,BinaryChromosome>> cleanup () {
+                return Collections.emptyList();
+            }
+        });
+    }
+
+    private String solveHospital (final RunConfig run, final String fname) throws IOException {
+        final P2Problem problem =
+            P2Problem.readFromURL(BatchRunner.class.getResource("/pe1314/g11/pr2/" + fname + ".dat"));
+
+        final int combination = combinationType();
+        final String mutation = spec.getString("p2.mutation", "exchange");
+        final int mutationType = mutation.equals("heuristic") ? -1 : mutationType(mutation);
+        final double inversion = spec.getDouble("p2.inversion", 0.0);
+
+        return solve(run, problem, new Pipeline<List<Integer>,PermutationChromosome>() {
+            @Override
+            public List<SolverStep<List<Integer>,PermutationChromosome>> variation () {
+                final List<SolverStep<List<Integer>,PermutationChromosome>> variation = new ArrayList<>();
+                variation.add(
+                    new CombinationStep<List<Integer>,PermutationChromosome>(run.getCrossover(), combination));
+                if (mutationType < 0) {
+                    variation.add(new HeuristicMutationStep<List<Integer>>(run.getMutation()));
+                } else {
+                    variation.add(new LengthedMutationStep<List<Integer>,PermutationChromosome>(
+                        run.getMutation(), mutationType));
+                }
+                variation.add(new InversionStep<List<Integer>,PermutationChromosome>(inversion));
+                return variation;
+            }
+
+            @Override
+            public List<SolverStep<List<Integer>,PermutationChromosome>> cleanup () {
+                return Arrays.<SolverStep<List<Integer>,PermutationChromosome>> asList(
+                    new DuplicateRemovalStep<List<Integer>,PermutationChromosome>());
+            }
+        });
+    }
+
+    private String solveSpaceInvaders (final RunConfig run, final int f) throws IOException {
+        final int depth = spec.getInt("p3.depth", 4) - 1;
+        final boolean complete = spec.getString("p3.init", "growing").equals("complete");
+        final SpaceInvadersProblem problem = new SpaceInvadersProblem(f, complete, depth, bloatingControl());
+
+        return solve(run, problem, new Pipeline<LispList,LispChromosome>() {
+            @Override
+            public List<SolverStep<LispList,LispChromosome>> variation () {
+                final List<SolverStep<LispList,LispChromosome>> variation = new ArrayList<>();
+                variation.add(new LispCombinationStep(run.getCrossover()));
+                variation.add(new LispMutationStep(run.getMutation(), depth));
+                return variation;
+            }
+
+            @Override
+            public List<SolverStep<LispList,LispChromosome>> cleanup () {
+                return Arrays.<SolverStep<LispList,LispChromosome>> asList(
+                    new DuplicateRemovalStep<LispList,LispChromosome>());
+            }
+        });
+    }
+
+    /**
+     * Builds and runs the solver of a run, on several islands if the sweep asks for them.
+     * 
+     * @param run The run configuration
+     * @param problem The problem to solve
+     * @param pipeline The problem-specific steps of the run
+     * @return The CSV row of the run
+     * @throws IOException if the temporary files of the trace cannot be closed
+     */
+    private <V, C extends Chromosome<C>> String solve (
+        final RunConfig run, final Problem<V,C> problem, final Pipeline<V,C> pipeline) throws IOException
+    {
+        final LimitCallbacks<V,C> callbacks = new LimitCallbacks<>(generations, stall);
+        final Random random = new SplitMixRandom(run.getSeed().hashCode());
+
+        final long start = System.nanoTime();
+        final SolverTrace<V,C> trace;
+        if (steady) {
+            trace = newSteadyStateSolver(run, problem, pipeline).solve(random, callbacks);
+        } else if (islands > 1) {
+            final IslandSolver<V,C> solver =
+                IslandSolver.create(islands, interval, migrants, new IslandSolver.Factory<V,C>() {
+                    @Override
+                    public Solver<V,C> create (final int island) {
+                        return newSolver(run, problem, pipeline);
+                    }
+                });
+            trace = solver.solve(random, callbacks);
+        } else {
+            trace = newSolver(run, problem, pipeline).solve(random, callbacks);
+        }
+        final long millis = (System.nanoTime() - start) / 1000000L;
+
+        // The trace is not needed once the row is built, and its spill files would be kept until the batch ends
+        try {
+            final C best = trace.getBestSeen();
+            return run.getIndex() + "," + run.getProblem() + "," + run.getSelection() + "," + run.getCrossover()
+                + "," + run.getMutation() + "," + run.getElite() + "," + run.getPopulation() + ","
+                + quote(run.getSeed()) + "," + callbacks.getCompletedGenerations() + ","
+                + trace.getBestSeenFitness() + "," + millis + ","
+                + quote(best == null ? "" : String.valueOf(problem.value(best)));
+        } finally {
+            trace.close();
+        }
+    }
+
+    /**
+     * Builds the solver of a run, or of one of its islands, with new instances of every step.
+     * 
+     * @param run The run configuration
+     * @param problem The problem to solve
+     * @param pipeline The problem-specific steps of the run
+     * @return A new solver
+     */
+    private <V, C extends Chromosome<C>> Solver<V,C> newSolver (
+        final RunConfig run, final Problem<V,C> problem, final Pipeline<V,C> pipeline)
+    {
+        final ElitismStepPair<V,C> esp = new ElitismStepPair<>(run.getElite());
+        final EvolutionStrategyStepPair<V,C> ess = evolutionStrategy(run);
+
+        // Evaluates the initial population and the offspring of every generation before their fitness is read
+        final SolverStep<V,C> evaluation = parallelEvaluation ? new ParallelEvaluationStep<V,C>() : null;
+
+        final Solver.Builder<V,C> builder = Solver.builder(problem);
+        builder.step(new RandomGenerationStep<V,C>(run.getPopulation(), 0));
+        if (evaluation != null) {
+            builder.step(evaluation);
+        }
+        builder.step(esp.getSaveStep());
+        builder.step(ess == null ? this.<V,C> selectionStep(run.getSelection()) : ess.getParentStep());
+        for (final SolverStep<V,C> step : pipeline.variation()) {
+            builder.step(step);
+        }
+        if (evaluation != null) {
+            builder.step(evaluation);
+        }
+        if (ess != null) {
+            builder.step(ess.getSurvivorStep());
+        }
+        builder.step(esp.getRestoreStep());
+        for (final SolverStep<V,C> step : pipeline.cleanup()) {
+            builder.step(step);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Builds the steady-state solver of a run, whose breeder applies the problem-specific steps to the parents drawn on
+     * every iteration. Elitism is not needed, as an offspring only replaces a member that is not fitter.
+     * 
+     * @param run The run configuration, whose selection must be <tt>tournament</tt>
+     * @param problem The problem to solve
+     * @param pipeline The problem-specific steps of the run
+     * @return A new steady-state solver
+     */
+    private <V, C extends Chromosome<C>> SteadyStateSolver<V,C> newSteadyStateSolver (
+        final RunConfig run, final Problem<V,C> problem, final Pipeline<V,C> pipeline)
+    {
+        if (!run.getSelection().equals("tournament")) {
+            throw new IllegalArgumentException("steady mode needs tournament selection: " + run.getSelection());
+        }
+
+        final Solver.Builder<V,C> builder = Solver.builder(problem);
+        for (final SolverStep<V,C> step : pipeline.variation()) {
+            builder.step(step);
+        }
+        if (parallelEvaluation) {
+            builder.step(new ParallelEvaluationStep<V,C>());
+        }
+        for (final SolverStep<V,C> step : pipeline.cleanup()) {
+            builder.step(step);
+        }
+
+        return builder.buildSteadyState(run.getPopulation(), offspring, spec.getInt("tournament.size", 8));
+    }
+
+    /**
+     * @return The evolution strategy of a run whose selection is <tt>plus</tt> or <tt>comma</tt>, with its population
+     *         size as <tt>mu</tt>, or <tt>null</tt> for any other selection
+     */
+    private <V, C extends Chromosome<C>> EvolutionStrategyStepPair<V,C> evolutionStrategy (final RunConfig run) {
+        final boolean plus = run.getSelection().equals("plus");
+        if (!plus && !run.getSelection().equals("comma")) {
+            return null;
+        }
+
+        final int mu = run.getPopulation();
+        return new EvolutionStrategyStepPair<>(mu, spec.getInt("es.lambda", 7 * mu), plus);
+    }
+
+    private <V, C extends Chromosome<C>> SolverStep<V,C> selectionStep (final String selection) {
+        switch (selection) {
+            case "roulette":
+                return new RouletteSelectionStep<>();
+
+            case "tournament":
+                return new TournamentSelectionStep<>(spec.getInt("tournament.size", 8));
+
+            case "ranking":
+                return new RankingSelectionStep<>(spec.getDouble("ranking.beta", RankingSelectionStep.DEFAULT_BETA));
+
+            case "sus":
+                return new StochasticUniversalSamplingStep<>();
+        }
+
+        throw new IllegalArgumentException("unknown selection: " + selection);
+    }
+
+    /** @return Whether the <tt>mode</tt> of the sweep is <tt>steady</tt> */
+    private boolean steadyMode () {
+        final String mode = spec.getString("mode", "generational");
+        switch (mode) {
+            case "generational":
+                return false;
+            case "steady":
+                return true;
+        }
+
+        throw new IllegalArgumentException("unknown mode: " + mode);
+    }
+
+    private VariableDecoder.Encoding encoding () {
+        final String encoding = spec.getString("p1.encoding", "binary");
+        switch (encoding) {
+            case "binary":
+                return VariableDecoder.Encoding.BINARY;
+            case "gray":
+                return VariableDecoder.Encoding.GRAY;
+        }
+
+        throw new IllegalArgumentException("unknown p1.encoding: " + encoding);
+    }
+
+    private int binaryCombinationType () {
+        final String combination = spec.getString("p1.crossover", "onepoint");
+        switch (combination) {
+            case "onepoint":
+                return BinaryChromosome.COMBINATION_ONE_POINT;
+            case "twopoint":
+                return BinaryChromosome.COMBINATION_TWO_POINT;
+            case "uniform":
+                return BinaryChromosome.COMBINATION_UNIFORM;
+            case "kpoint":
+                return BinaryChromosome.COMBINATION_K_POINT;
+        }
+
+        throw new IllegalArgumentException("unknown p1.crossover: " + combination);
+    }
+
+    private int combinationType () {
+        final String combination = spec.getString("p2.crossover", "pmx");
+        switch (combination) {
+            case "pmx":
+                return PermutationChromosome.COMBINATION_PMX;
+            case "ox":
+                return PermutationChromosome.COMBINATION_OX;
+            case "cx":
+                return PermutationChromosome.COMBINATION_CX;
+            case "ordcod":
+                return PermutationChromosome.COMBINATION_ORDCOD;
+            case "recomb":
+                return PermutationChromosome.COMBINATION_RECOMB;
+        }
+
+        throw new IllegalArgumentException("unknown p2.crossover: " + combination);
+    }
+
+    private static int mutationType (final String mutation) {
+        switch (mutation) {
+            case "exchange":
+                return PermutationChromosome.MUTATION_EXCHANGE;
+            case "insertion":
+                return PermutationChromosome.MUTATION_INSERTION;
+            case "inversion":
+                return PermutationChromosome.MUTATION_INVERSION;
+            case "rotation":
+                return PermutationChromosome.MUTATION_ROTATION;
+        }
+
+        throw new IllegalArgumentException("unknown p2.mutation: " + mutation);
+    }
+
+    private int bloatingControl () {
+        final String bloat = spec.getString("p3.bloat", "none");
+        switch (bloat) {
+            case "none":
+                return -1;
+            case "depth":
+                return 1;
+            case "size":
+                return 2;
+        }
+
+        throw new IllegalArgumentException("unknown p3.bloat: " + bloat);
+    }
+
+    /** @return <tt>value</tt> quoted as a CSV field */
+    private static String quote (final String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Creates the problem-specific steps of a run. Every call must return new instances, as the islands of a run cannot
+     * share steps.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <V> Type of the values
+     * @param <C> Type of the chromosomes
+     */
+    private interface Pipeline<V, C extends Chromosome<C>> {
+
+        /** @return Steps applied between selection and the restoring of the elite */
+        public abstract List<SolverStep<V,C>> variation ();
+
+        /** @return Steps applied after the restoring of the elite */
+        public abstract List<SolverStep<V,C>> cleanup ();
+    }
+
+    /** A single run, executed on the pool */
+    private final class Run implements Callable<String> {
+
+        private final RunConfig run;
+
+        /* package */Run (final RunConfig run) {
+            this.run = run;
+        }
+
+        @Override
+        public String call () throws IOException {
+            try {
+                return solve(run);
+            } catch (final RuntimeException exc) {
+                throw new IllegalStateException(run.toString(), exc);
+            }
+        }
+    }
+}
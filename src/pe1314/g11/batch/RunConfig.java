@@ -0,0 +1,81 @@
+package pe1314.g11.batch;
+
+/**
+ * The configuration of a single run of a sweep.
+ *
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class RunConfig {
+
+    private final int index;
+    private final String problem;
+    private final String selection;
+    private final double crossover;
+    private final double mutation;
+    private final double elite;
+    private final int population;
+    private final String seed;
+
+    /**
+     * @param index Position of this run on its sweep
+     * @param problem Name of the problem
+     * @param selection Name of the selection type
+     * @param crossover Crossover probability
+     * @param mutation Mutation probability
+     * @param elite Fraction of the population kept as elite
+     * @param population Size of the population
+     * @param seed Seed of the random generator, as typed on the GUI
+     */
+    public RunConfig (
+        final int index, final String problem, final String selection, final double crossover, final double mutation,
+        final double elite, final int population, final String seed)
+    {
+        this.index = index;
+        this.problem = problem;
+        this.selection = selection;
+        this.crossover = crossover;
+        this.mutation = mutation;
+        this.elite = elite;
+        this.population = population;
+        this.seed = seed;
+    }
+
+    public int getIndex () {
+        return index;
+    }
+
+    public String getProblem () {
+        return problem;
+    }
+
+    public String getSelection () {
+        return selection;
+    }
+
+    public double getCrossover () {
+        return crossover;
+    }
+
+    public double getMutation () {
+        return mutation;
+    }
+
+    public double getElite () {
+        return elite;
+    }
+
+    public int getPopulation () {
+        return population;
+    }
+
+    public String getSeed () {
+        return seed;
+    }
+
+    @Override
+    public String toString () {
+        return "run " + index + " (" + problem + ", " + selection + ", crossover=" + crossover + ", mutation="
+            + mutation + ", elite=" + elite + ", population=" + population + ", seed=" + seed + ")";
+    }
+}
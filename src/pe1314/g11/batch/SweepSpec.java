@@ -0,0 +1,224 @@
+package pe1314.g11.batch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A parameter sweep, read from a properties file. Every run of the sweep uses one value of every list-valued key, and
+ * the sweep contains a run for every combination of them.
+ * <p>
+ * List-valued keys, whose values are separated by commas:
+ * <ul>
+ * <li><tt>problems</tt>: <tt>p1.f1</tt> to <tt>p1.f5</tt>, <tt>p2.ajuste</tt>, <tt>p2.tai12</tt>, <tt>p2.tai15</tt>,
+ * <tt>p2.tai30</tt>, <tt>p3.a</tt> or <tt>p3.b</tt></li>
+ * <li><tt>selections</tt>: <tt>tournament</tt>, <tt>roulette</tt>, <tt>ranking</tt>, <tt>sus</tt> (stochastic
+ * universal sampling), <tt>plus</tt> or <tt>comma</tt> (<tt>(mu+lambda)</tt> and <tt>(mu,lambda)</tt> evolution
+ * strategies, with the population size as <tt>mu</tt>) (default <tt>tournament</tt>)</li>
+ * <li><tt>crossover</tt>: crossover probabilities (default <tt>0.6</tt>)</li>
+ * <li><tt>mutation</tt>: mutation probabilities (default <tt>0.05</tt>)</li>
+ * <li><tt>elite</tt>: fractions of the population kept as elite (default <tt>0</tt>)</li>
+ * <li><tt>population</tt>: population sizes (default <tt>100</tt>)</li>
+ * <li><tt>seeds</tt>: seeds of the random generator, as typed on the GUI, or ranges like <tt>1..30</tt> (default
+ * <tt>1</tt>)</li>
+ * </ul>
+ * Single-valued keys:
+ * <ul>
+ * <li><tt>generations</tt>: maximum generations per run, or iterations in steady mode (default <tt>100</tt>,
+ * <tt>0</tt> for no limit)</li>
+ * <li><tt>stall</tt>: maximum generations without improvement (default <tt>0</tt>, no limit)</li>
+ * <li><tt>mode</tt>: <tt>generational</tt>, or <tt>steady</tt> to replace the worst members with a few offspring on
+ * every iteration, with tournament selection only, no elitism and no islands (default <tt>generational</tt>)</li>
+ * <li><tt>steady.offspring</tt>: parents bred on every iteration of the steady mode (default <tt>2</tt>)</li>
+ * <li><tt>threads</tt>: number of runs executed at the same time (default: available processors)</li>
+ * <li><tt>parallel.evaluation</tt>: <tt>true</tt> to also evaluate the fitness of every generation on the shared pool,
+ * only worth it when fewer runs than processors are executed at the same time (default <tt>false</tt>)</li>
+ * <li><tt>islands</tt>: number of islands of every run, each one with the population size of the run and a thread of
+ * its own (default <tt>1</tt>, a single population)</li>
+ * <li><tt>islands.interval</tt>: generations between migrations between islands (default <tt>10</tt>)</li>
+ * <li><tt>islands.migrants</tt>: chromosomes sent from every island on each migration (default <tt>2</tt>)</li>
+ * <li><tt>tournament.size</tt>: size of the tournaments (default <tt>8</tt>)</li>
+ * <li><tt>ranking.beta</tt>: selective pressure of the ranking selection, from <tt>1</tt> to <tt>2</tt> (default
+ * <tt>2</tt>)</li>
+ * <li><tt>es.lambda</tt>: offspring of every generation of the evolution strategies (default: 7 times the population
+ * size)</li>
+ * <li><tt>p1.precision</tt>: precision of the P1 problems (default <tt>0.001</tt>)</li>
+ * <li><tt>p1.f4.n</tt>: number of variables of the P1 function 4 (default <tt>4</tt>)</li>
+ * <li><tt>p1.encoding</tt>: <tt>binary</tt> or <tt>gray</tt> (default <tt>binary</tt>)</li>
+ * <li><tt>p1.crossover</tt>: <tt>onepoint</tt>, <tt>twopoint</tt>, <tt>uniform</tt> or <tt>kpoint</tt> (default
+ * <tt>onepoint</tt>)</li>
+ * <li><tt>p1.crossover.points</tt>: number of points of the <tt>kpoint</tt> crossover (default <tt>3</tt>)</li>
+ * <li><tt>p2.crossover</tt>: <tt>pmx</tt>, <tt>ox</tt>, <tt>cx</tt>, <tt>ordcod</tt> or <tt>recomb</tt> (default
+ * <tt>pmx</tt>)</li>
+ * <li><tt>p2.mutation</tt>: <tt>inversion</tt>, <tt>exchange</tt>, <tt>insertion</tt>, <tt>rotation</tt> or
+ * <tt>heuristic</tt> (default <tt>exchange</tt>)</li>
+ * <li><tt>p2.inversion</tt>: inversion probability (default <tt>0</tt>)</li>
+ * <li><tt>p3.depth</tt>: maximum depth of the programs (default <tt>4</tt>)</li>
+ * <li><tt>p3.init</tt>: <tt>growing</tt> or <tt>complete</tt> (default <tt>growing</tt>)</li>
+ * <li><tt>p3.bloat</tt>: <tt>none</tt>, <tt>depth</tt> or <tt>size</tt> (default <tt>none</tt>)</li>
+ * </ul>
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class SweepSpec {
+
+    private final Properties properties;
+    private final List<RunConfig> runs;
+
+    /**
+     * @param properties Properties that define the sweep
+     * @throws IllegalArgumentException if any property is not valid
+     */
+    public SweepSpec (final Properties properties) {
+        this.properties = properties;
+
+        final List<String> problems = list("problems", null);
+        final List<String> selections = list("selections", "tournament");
+        final List<String> crossovers = list("crossover", "0.6");
+        final List<String> mutations = list("mutation", "0.05");
+        final List<String> elites = list("elite", "0");
+        final List<String> populations = list("population", "100");
+        final List<String> seeds = seeds(list("seeds", "1"));
+
+        if (problems.isEmpty()) {
+            throw new IllegalArgumentException("no problems");
+        }
+
+        final List<RunConfig> all = new ArrayList<RunConfig>();
+        for (final String problem : problems) {
+            for (final String selection : selections) {
+                for (final String crossover : crossovers) {
+                    for (final String mutation : mutations) {
+                        for (final String elite : elites) {
+                            for (final String population : populations) {
+                                for (final String seed : seeds) {
+                                    all.add(new RunConfig(
+                                        all.size(), problem, selection, toDouble("crossover", crossover),
+                                        toDouble("mutation", mutation), toDouble("elite", elite),
+                                        toInt("population", population), seed));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        runs = Collections.unmodifiableList(all);
+    }
+
+    /**
+     * Reads a sweep from a properties file.
+     * 
+     * @param reader Reader of the properties
+     * @return The sweep
+     * @throws IOException if the properties cannot be read
+     */
+    public static SweepSpec read (final Reader reader) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(reader);
+        return new SweepSpec(properties);
+    }
+
+    /** @return Every run of this sweep */
+    public List<RunConfig> getRuns () {
+        return runs;
+    }
+
+    /**
+     * @param key Name of a single-valued key
+     * @param def Default value
+     * @return Value of <tt>key</tt>, or <tt>def</tt> if not present
+     */
+    public String getString (final String key, final String def) {
+        return properties.getProperty(key, def).trim();
+    }
+
+    /**
+     * @param key Name of a single-valued key
+     * @param def Default value
+     * @return Value of <tt>key</tt>, or <tt>def</tt> if not present
+     * @throws IllegalArgumentException if the value is not an integer
+     */
+    public int getInt (final String key, final int def) {
+        return toInt(key, getString(key, String.valueOf(def)));
+    }
+
+    /**
+     * @param key Name of a single-valued key
+     * @param def Default value
+     * @return Value of <tt>key</tt>, or <tt>def</tt> if not present
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    public double getDouble (final String key, final double def) {
+        return toDouble(key, getString(key, String.valueOf(def)));
+    }
+
+    /**
+     * @param key Name of a single-valued key
+     * @param def Default value
+     * @return Value of <tt>key</tt>, or <tt>def</tt> if not present
+     * @throws IllegalArgumentException if the value is not <tt>true</tt> or <tt>false</tt>
+     */
+    public boolean getBoolean (final String key, final boolean def) {
+        final String value = getString(key, String.valueOf(def));
+        switch (value) {
+            case "true":
+                return true;
+            case "false":
+                return false;
+        }
+
+        throw new IllegalArgumentException("invalid " + key + ": " + value);
+    }
+
+    private List<String> list (final String key, final String def) {
+        final String value = properties.getProperty(key, def);
+        final List<String> list = new ArrayList<String>();
+        if (value != null) {
+            for (final String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    list.add(item.trim());
+                }
+            }
+        }
+        return list;
+    }
+
+    private static List<String> seeds (final List<String> values) {
+        final List<String> seeds = new ArrayList<String>();
+        for (final String value : values) {
+            final int range = value.indexOf("..");
+            if (range < 0) {
+                seeds.add(value);
+                continue;
+            }
+
+            final int from = toInt("seeds", value.substring(0, range).trim());
+            final int to = toInt("seeds", value.substring(range + 2).trim());
+            for (int seed = from; seed <= to; seed++) {
+                seeds.add(String.valueOf(seed));
+            }
+        }
+        return seeds;
+    }
+
+    private static int toInt (final String key, final String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException exc) {
+            throw new IllegalArgumentException("invalid " + key + ": " + value, exc);
+        }
+    }
+
+    private static double toDouble (final String key, final String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (final NumberFormatException exc) {
+            throw new IllegalArgumentException("invalid " + key + ": " + value, exc);
+        }
+    }
+}
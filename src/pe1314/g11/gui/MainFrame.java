@@ -5,9 +5,10 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import javax.swing.BoxLayout;
 import javax.swing.DefaultComboBoxModel;
@@ -31,9 +32,9 @@ import javax.swing.WindowConstants;
 import pe1314.g11.Chromosome;
 import pe1314.g11.Problem;
 import pe1314.g11.Solver;
-import pe1314.g11.Solver.Callbacks;
 import pe1314.g11.SolverStep;
-import pe1314.g11.SolverTrace;
+import pe1314.g11.gui.SwingSolverCallbackHelper.Event;
+import pe1314.g11.gui.SwingSolverCallbackHelper.Snapshot;
 import pe1314.g11.pr1.P1F1Problem;
 import pe1314.g11.pr1.P1F2Problem;
 import pe1314.g11.pr1.P1F3Problem;
@@ -52,17 +53,18 @@ import pe1314.g11.pr3.SpaceInvadersProblem;
 import pe1314.g11.sga.BinaryChromosome;
 import pe1314.g11.sga.CombinationStep;
 import pe1314.g11.sga.DuplicateRemovalStep;
+import pe1314.g11.sga.GeometricMutationStep;
 import pe1314.g11.sga.InversionStep;
 import pe1314.g11.sga.LengthedMutationStep;
-import pe1314.g11.sga.MultiMutationStep;
 import pe1314.g11.sga.PermutationChromosome;
 import pe1314.g11.sga.RankingSelectionStep;
 import pe1314.g11.sga.RouletteSelectionStep;
+import pe1314.g11.sga.StochasticUniversalSamplingStep;
 import pe1314.g11.sga.TournamentSelectionStep;
 import pe1314.g11.util.ElitismStepPair;
-import pe1314.g11.util.FitnessComparator;
+import pe1314.g11.util.ParallelEvaluationStep;
 import pe1314.g11.util.RandomGenerationStep;
-import pe1314.g11.util.XorShiftRandom;
+import pe1314.g11.util.SplitMixRandom;
 
 import com.jgoodies.forms.builder.PanelBuilder;
 import com.jgoodies.forms.layout.CellConstraints;
@@ -93,6 +95,7 @@ public final class MainFrame extends JFrame {
     private static final String SEL_ROULETTE = "Ruleta";
     private static final String SEL_TOURNAMENT = "Torneo";
     private static final String SEL_RANKING = "Ranking";
+    private static final String SEL_SUS = "Estoc\u00E1stico Universal";
 
     private static final String COMB_PMX = "Emp. Parcial";
     private static final String COMB_OX = "Orden";
@@ -156,7 +159,7 @@ public final class MainFrame extends JFrame {
     private JButton buttonStop;
 
     /* package */SwingWorker<?,?> geneticWorker;
-    /* package */volatile boolean stopWorker;
+    /* package */SwingSolverCallbackHelper<?,?> solverCallbacks;
 
     /* package */ResultsPanel resultsPanel;
 
@@ -336,7 +339,7 @@ public final class MainFrame extends JFrame {
 
         comboSelectionType = new JComboBox<String>();
         comboSelectionType.setModel(new DefaultComboBoxModel<String>(new String[] {
-            SEL_TOURNAMENT, SEL_ROULETTE, SEL_RANKING }));
+            SEL_TOURNAMENT, SEL_ROULETTE, SEL_RANKING, SEL_SUS }));
 
         comboInitType = new JComboBox<String>();
         comboInitType.setModel(new DefaultComboBoxModel<String>(new String[] { INIT_GROWING, INIT_COMPLETE }));
@@ -520,7 +523,7 @@ public final class MainFrame extends JFrame {
 
     /** The user pressed an exit button */
     /* package */void actionExit () {
-        stopWorker = true;
+        clickedStop();
         dispose();
     }
 
@@ -550,7 +553,9 @@ public final class MainFrame extends JFrame {
     }
 
     /* package */void clickedStop () {
-        stopWorker = true;
+        if (solverCallbacks != null) {
+            solverCallbacks.stop();
+        }
     }
 
     // =========================
@@ -560,7 +565,7 @@ public final class MainFrame extends JFrame {
         final boolean rngIsSelected = checkboxRandomSeed.isSelected();
         final String seed = rngIsSelected ? textfieldRandomSeed.getText() : String.valueOf(System.nanoTime());
         textfieldRandomSeed.setText(seed);
-        return new XorShiftRandom(seed.hashCode());
+        return new SplitMixRandom(seed.hashCode());
     }
 
     private <V, C extends Chromosome<C>> SolverStep<V,C> obtainGenerationStep () {
@@ -581,6 +586,9 @@ public final class MainFrame extends JFrame {
 
             case SEL_RANKING:
                 return new RankingSelectionStep<>();
+
+            case SEL_SUS:
+                return new StochasticUniversalSamplingStep<>();
         }
 
         return null;
@@ -663,7 +671,7 @@ public final class MainFrame extends JFrame {
 
         switch (obtainPNum()) {
             case 1:
-                return new MultiMutationStep<>(mutateProb, 0);
+                return new GeometricMutationStep<>(mutateProb, 0);
             case 2:
                 return new LengthedMutationStep<>(mutateProb, obtainMutationType());
             case 3:
@@ -698,8 +706,10 @@ public final class MainFrame extends JFrame {
             return null;
         }
 
-        return new SolverWorker<V,C>(
-            solver, SwingSolverCallbackHelper.wrap(new SolverCallbacks<V,C>(generations, stall)), random);
+        final SwingSolverCallbackHelper<V,C> callbacks =
+            new SwingSolverCallbackHelper<V,C>(generations, stall, new SolverListener<V,C>());
+        solverCallbacks = callbacks;
+        return new SolverWorker<V,C>(solver, callbacks, random);
     }
 
     private <V> void solveBinaryProblem (final Problem<V,BinaryChromosome> problem) {
@@ -710,14 +720,17 @@ public final class MainFrame extends JFrame {
         final SolverStep<V,BinaryChromosome> selectionStep = obtainSelectionStep();
         final SolverStep<V,BinaryChromosome> combinationStep = obtainCombinationStep();
         final SolverStep<V,BinaryChromosome> mutationStep = obtainMutationStep();
+        final SolverStep<V,BinaryChromosome> evaluationStep = new ParallelEvaluationStep<>();
 
         /* @formatter:off */
         final Solver<V, BinaryChromosome> solver = Solver.builder(problem)
             .step(generationStep)
+            .step(evaluationStep)
             .step(esp.getSaveStep())
             .step(selectionStep)
             .step(combinationStep)
             .step(mutationStep)
+            .step(evaluationStep)
             .step(esp.getRestoreStep())
             .build();
         /* @formatter:on */
@@ -743,14 +756,18 @@ public final class MainFrame extends JFrame {
             final SolverStep<List<Integer>,PermutationChromosome> inversionStep = obtainInversionStep();
             final SolverStep<List<Integer>,PermutationChromosome> dedupStep = new DuplicateRemovalStep<>();
 
+            final SolverStep<List<Integer>,PermutationChromosome> evaluationStep = new ParallelEvaluationStep<>();
+
             /* @formatter:off */
             final Solver<List<Integer>, PermutationChromosome> solver = Solver.builder(problem)
                 .step(generationStep)
+                .step(evaluationStep)
                 .step(esp.getSaveStep())
                 .step(selectionStep)
                 .step(combinationStep)
                 .step(mutationStep)
                 .step(inversionStep)
+                .step(evaluationStep)
                 .step(esp.getRestoreStep())
                 .step(dedupStep)
                 .build();
@@ -758,7 +775,6 @@ public final class MainFrame extends JFrame {
 
             geneticWorker = obtainWorker(solver, random);
             if (geneticWorker != null) {
-                stopWorker = false;
                 geneticWorker.execute();
             }
         } catch (final IOException exc) {
@@ -779,14 +795,17 @@ public final class MainFrame extends JFrame {
         final SolverStep<LispList,LispChromosome> mutationStep = obtainMutationStep();
         final SolverStep<LispList,LispChromosome> dedupStep = new DuplicateRemovalStep<>();
         final SolverStep<LispList,LispChromosome> pruneStep = new LispPruneStep(obtainDepth());
+        final SolverStep<LispList,LispChromosome> evaluationStep = new ParallelEvaluationStep<>();
 
         /* @formatter:off */
         final Solver<LispList,LispChromosome> solver = Solver.builder(problem)
             .step(generationStep)
+            .step(evaluationStep)
             .step(esp.getSaveStep())
             .step(selectionStep)
             .step(combinationStep)
             .step(mutationStep)
+            .step(evaluationStep)
             .step(esp.getRestoreStep())
             .step(dedupStep)
             .step(obtainBloatingControl() == 0 ? pruneStep : null)
@@ -795,103 +814,40 @@ public final class MainFrame extends JFrame {
 
         geneticWorker = obtainWorker(solver, random);
         if (geneticWorker != null) {
-            stopWorker = false;
             geneticWorker.execute();
         }
     }
 
-    private final class SolverCallbacks<V, C extends Chromosome<C>> implements Callbacks<V,C> {
-
-        /** Maximum generations to run */
-        private final int generations;
-
-        /** Maximum generations for the best fitness to be stalled */
-        private final int stalled;
-
-        /** Solver used on the process */
-        private volatile Solver<V,C> solver;
-
-        /** Best chromosome seen */
-        private volatile C best;
-
-        /** Currently running generation */
-        private volatile int currentGeneration;
-
-        /** Currently running generation */
-        private volatile int currentStall;
-
-        /* package */SolverCallbacks (final int generations, final int stalled) {
-            this.generations = generations;
-            this.stalled = stalled;
-        }
-
-        @Override
-        public boolean shouldStop () {
-            if (generations > 0 && currentGeneration >= generations) {
-                return true;
-            }
-
-            if (stalled > 0 && currentStall >= stalled) {
-                return true;
-            }
-
-            return stopWorker;
-        }
+    private final class SolverListener<V, C extends Chromosome<C>> implements SwingSolverCallbackHelper.Listener<V,C> {
 
         @Override
-        public void startProcess (final Solver<V,C> psolver) {
-            solver = psolver;
-            best = null;
-            currentStall = 0;
-            currentGeneration = 0;
-
-            resultsPanel.clearResults();
-            updateLeftForm();
+        public Set<Event> getEvents () {
+            return EnumSet.of(Event.START_PROCESS, Event.END_GENERATION, Event.END_PROCESS);
         }
 
         @Override
-        public void startGeneration (final int gen, final List<C> population) {
-            currentGeneration = gen;
-        }
-
-        @Override
-        public void startStep (final SolverStep<V,C> step, final List<C> population) {
-        }
-
-        @Override
-        public void endStep (final List<C> population) {
-        }
-
-        @Override
-        public void endGeneration (final List<C> population) {
-            final Comparator<C> comp = new FitnessComparator<>(solver.getProblem());
-
-            C nextBest = null;
-            for (final C chromo : population) {
-                if (nextBest == null || comp.compare(chromo, nextBest) < 0) {
-                    nextBest = chromo;
-                }
+        public void update (final Snapshot<V,C> snapshot) {
+            switch (snapshot.getEvent()) {
+                case START_PROCESS:
+                    resultsPanel.clearResults();
+                    updateLeftForm();
+                    break;
+
+                case END_GENERATION:
+                    resultsPanel.addGeneration(
+                        snapshot.getProblem(), snapshot.getGeneration(), snapshot.getPopulation(), snapshot.getBest(),
+                        snapshot.getBestFitness());
+                    break;
+
+                case END_PROCESS:
+                    geneticWorker = null;
+                    solverCallbacks = null;
+                    updateLeftForm();
+                    break;
+
+                default:
+                    break;
             }
-
-            if (best == null || (nextBest != null && comp.compare(nextBest, best) < 0)) {
-                currentStall = 0;
-                best = nextBest;
-
-            } else {
-                currentStall++;
-            }
-
-            resultsPanel.addGeneration(solver.getProblem(), currentGeneration, population, best);
         }
-
-        @Override
-        public void endProcess (final SolverTrace<V,C> trace) {
-            solver = null;
-            best = null;
-
-            geneticWorker = null;
-            updateLeftForm();
-        }
-
     }
 }
@@ -3,13 +3,13 @@ package pe1314.g11.gui;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Hashtable;
 import java.util.List;
 
 import javax.swing.Box;
 import javax.swing.JComponent;
 import javax.swing.JDialog;
+import javax.swing.JLabel;
 import javax.swing.JScrollPane;
 import javax.swing.JSlider;
 import javax.swing.JSplitPane;
@@ -27,10 +27,11 @@ import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.pr3.LispChromosome;
 import pe1314.g11.pr3.RunnerDialog;
-import pe1314.g11.util.FitnessComparator;
+import pe1314.g11.util.FitnessSort;
 
 import com.jgoodies.forms.builder.PanelBuilder;
 import com.jgoodies.forms.layout.CellConstraints;
@@ -63,8 +64,10 @@ public final class ResultsPanel extends JSplitPane {
     private XYSeries seriesBestLocal;
     private XYSeries seriesBestGlobal;
 
+    /** Tables, chromosomes and number of every generation shown, which may not be all of them */
     private final List<List<String[]>> tables = new ArrayList<>();
     private final List<List<Chromosome<?>>> chromosomes = new ArrayList<>();
+    private final List<Integer> generations = new ArrayList<>();
 
     public ResultsPanel () {
         super(JSplitPane.VERTICAL_SPLIT);
@@ -145,6 +148,7 @@ public final class ResultsPanel extends JSplitPane {
 
         tables.clear();
         chromosomes.clear();
+        generations.clear();
 
         bestChromo.setText("");
         bestValue.setText("");
@@ -195,7 +199,10 @@ public final class ResultsPanel extends JSplitPane {
         }
     }
 
-    private void updateSlider (final int num) {
+    /** Makes the slider go through every generation shown, labeled with their generation numbers */
+    private void updateSlider () {
+        final int num = tables.size() - 1;
+
         slider.setMinimum(0);
         slider.setValue(0); // Avoid NPE (range-check)
         try {
@@ -207,9 +214,15 @@ public final class ResultsPanel extends JSplitPane {
         }
         slider.setValue(num);
 
-        slider.setMajorTickSpacing(Math.max(1, num / 15));
+        final int spacing = Math.max(1, num / 15);
+        final Hashtable<Integer,JLabel> labels = new Hashtable<>();
+        for (int i = num; i >= 0; i -= spacing) {
+            labels.put(Integer.valueOf(i), new JLabel(String.valueOf(generations.get(i))));
+        }
+
+        slider.setMajorTickSpacing(spacing);
         slider.setMinorTickSpacing(Math.max(1, num / 150));
-        slider.createStandardLabels(Math.max(1, num / 15), Math.max(0, num - 15 * (num / 15)));
+        slider.setLabelTable(labels);
         slider.setEnabled(true);
     }
 
@@ -220,54 +233,49 @@ public final class ResultsPanel extends JSplitPane {
     }
 
     public <V, C extends Chromosome<C>> void addGeneration (
-        final Problem<V,C> problem, final int gen, final List<C> population, final C best)
+        final Problem<V,C> problem, final int gen, final Population<C> population, final C best,
+        final double bestFit)
     {
         final int len = population.size();
-        final Comparator<C> fcmp = new FitnessComparator<>(problem);
 
         double sum = 0;
-        C lcbest = population.get(0);
-
-        for (final C chromo : population) {
-            if (fcmp.compare(chromo, lcbest) < 0) {
-                lcbest = chromo;
-            }
-
-            sum += problem.fitness(chromo);
+        for (int i = 0; i < len; i++) {
+            sum += population.fitness(i);
         }
 
         seriesAverage.add(gen, sum / len);
-        seriesBestLocal.add(gen, problem.fitness(lcbest));
-        seriesBestGlobal.add(gen, problem.fitness(best));
+        seriesBestLocal.add(gen, population.fitness(population.best()));
+        seriesBestGlobal.add(gen, bestFit);
 
-        final List<C> sorted = new ArrayList<>(population);
-        Collections.sort(sorted, fcmp);
+        final int[] order = FitnessSort.order(population);
 
         final List<String[]> rows = new ArrayList<>();
         final List<Chromosome<?>> crows = new ArrayList<>();
         clearTable();
-        for (final C chromo : sorted) {
+        for (final int index : order) {
+            final C chromo = population.get(index);
             crows.add(chromo);
             rows.add(new String[] { //
-                chromo.toString(), problem.value(chromo).toString(), String.valueOf(problem.fitness(chromo)) });
+                chromo.toString(), problem.value(chromo).toString(), String.valueOf(population.fitness(index)) });
         }
 
         tables.add(rows);
         chromosomes.add(crows);
+        generations.add(Integer.valueOf(gen));
 
         updateTable(rows);
-        updateSlider(gen);
+        updateSlider();
 
         bestChromo.setText(best.toString());
         bestValue.setText(problem.value(best).toString());
-        bestFitness.setText(String.valueOf(problem.fitness(best)));
+        bestFitness.setText(String.valueOf(bestFit));
     }
 
     /* package */void doubleClicked (final int row) {
         final int table = slider.getValue();
         final Chromosome<?> chromo = chromosomes.get(table).get(row);
         
-        System.out.printf("Double-Clicked (gen %d, row %d) = %s%n", table, row, chromo);
+        System.out.printf("Double-Clicked (gen %d, row %d) = %s%n", generations.get(table), row, chromo);
         
         if (chromo instanceof LispChromosome) {
             final JDialog dialog = new RunnerDialog(((LispChromosome) chromo).getLispList());
@@ -1,50 +1,91 @@
 package pe1314.g11.gui;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.swing.SwingUtilities;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
 import pe1314.g11.Solver;
-import pe1314.g11.Solver.Callbacks;
 import pe1314.g11.SolverStep;
 import pe1314.g11.SolverTrace;
+import pe1314.g11.util.LimitCallbacks;
 
 /**
- * A Swing-friendly version of the {@link Callbacks Solver.Callbacks} interface.
+ * A bridge between a {@link Solver} and the Swing Event Dispatch Thread.
  * <p>
- * Objects of this class are created by wrapping another <tt>Callbacks</tt> object with the static
- * {@link #wrap(Callbacks)} method.
+ * The stop conditions are checked on the solver thread, as in {@link LimitCallbacks}, so the solver never waits for the
+ * Event Dispatch Thread. Events are forwarded to a {@link Listener} as immutable {@link Snapshot snapshots}, but only
+ * the events the listener declares are forwarded, and populations are only copied for them. Generation and step events
+ * are coalesced: at most one snapshot is published every {@link #FRAME_NANOS} nanoseconds through an atomic reference,
+ * and the listener only receives the latest one when the Event Dispatch Thread gets to it. The last generation is
+ * always published, and process events are never coalesced.
  * 
  * @author Daniel Escoz Solana
  * @author Pedro Morgado Alarc&oacute;n
  * @param <V> Type of the values
  * @param <C> Type of the chromosomes
  */
-public final class SwingSolverCallbackHelper<V, C extends Chromosome<C>> implements Callbacks<V,C> {
+public final class SwingSolverCallbackHelper<V, C extends Chromosome<C>> extends LimitCallbacks<V,C> {
 
-    /** The wrapped callbacks */
-    /* callkbacks */Callbacks<V,C> callbacks;
+    /** Minimum time between two published snapshots, in nanoseconds */
+    public static final long FRAME_NANOS = 1000000000L / 60;
 
-    private SwingSolverCallbackHelper (final Callbacks<V,C> callbacks) {
-        if (callbacks == null) {
-            throw new NullPointerException("callbacks");
+    /** Listener that receives the snapshots */
+    private final Listener<V,C> listener;
+
+    /** Events consumed by the listener */
+    private final Set<Event> events;
+
+    /** Latest snapshot not yet received by the listener */
+    private final AtomicReference<Snapshot<V,C>> latest = new AtomicReference<Snapshot<V,C>>();
+
+    /** Sends the latest snapshot to the listener */
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run () {
+            final Snapshot<V,C> snapshot = latest.getAndSet(null);
+            if (snapshot != null) {
+                listener.update(snapshot);
+            }
         }
+    };
 
-        this.callbacks = callbacks;
-    }
+    /** Whether the user asked to stop the process */
+    private volatile boolean stopRequested = false;
+
+    /** Whether the process should stop, decided at the end of every generation */
+    private boolean stopping;
+
+    /** Problem being solved */
+    private Problem<V,C> problem;
+
+    /** Earliest time for the next snapshot to be published */
+    private long nextFrame;
 
     /**
-     * Wraps a specific {@link Callbacks callbacks} implementation so that its methods, with the exception of
-     * {@link #shouldStop()}, are always executed in the Swing Event Dispatch Thread.
-     * 
-     * @param callbacks The callbacks object to wrap
-     * @return A new callbacks object that is Swing-friendly
+     * @param generations Maximum generations to run, or <tt>0</tt> for no limit
+     * @param stalled Maximum generations for the best fitness to be stalled, or <tt>0</tt> for no limit
+     * @param listener Listener that receives the snapshots on the Event Dispatch Thread
      */
-    public static <V, C extends Chromosome<C>> SwingSolverCallbackHelper<V,C> wrap (final Callbacks<V,C> callbacks) {
-        return new SwingSolverCallbackHelper<V,C>(callbacks);
+    public SwingSolverCallbackHelper (final int generations, final int stalled, final Listener<V,C> listener) {
+        super(generations, stalled);
+
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+
+        this.listener = listener;
+        this.events = EnumSet.noneOf(Event.class);
+        this.events.addAll(listener.getEvents());
+    }
+
+    /** Asks the process to stop at the end of the current generation. May be called from any thread. */
+    public void stop () {
+        stopRequested = true;
     }
 
     // ======================
@@ -52,96 +93,227 @@ public final class SwingSolverCallbackHelper<V, C extends Chromosome<C>> impleme
 
     @Override
     public boolean shouldStop () {
-        try {
-            SwingUtilities.invokeAndWait(new Runnable() {
-                @Override
-                public void run () {
-                    /* Nothing, just wait */
-                }
-            });
-        } catch (final Exception exc) {
-            exc.printStackTrace();
-        }
-
-        synchronized (this) {
-            return callbacks.shouldStop();
-        }
+        return stopping;
     }
 
     @Override
     public void startProcess (final Solver<V,C> solver) {
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run () {
-                synchronized (SwingSolverCallbackHelper.this) {
-                    callbacks.startProcess(solver);
-                }
-            }
-        });
+        super.startProcess(solver);
+        problem = solver.getProblem();
+        nextFrame = System.nanoTime();
+        stopping = stopRequested || super.shouldStop();
+
+        send(Event.START_PROCESS, null);
     }
 
     @Override
-    public void startGeneration (final int gen, final List<C> population) {
-        final List<C> clonedPopulation = Collections.unmodifiableList(new ArrayList<C>(population));
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run () {
-                synchronized (SwingSolverCallbackHelper.this) {
-                    callbacks.startGeneration(gen, clonedPopulation);
-                }
-            }
-        });
+    public void startGeneration (final int gen, final Population<C> population) {
+        super.startGeneration(gen, population);
+        publish(Event.START_GENERATION, null, population, false);
     }
 
     @Override
-    public void startStep (final SolverStep<V,C> step, final List<C> population) {
-        final List<C> clonedPopulation = Collections.unmodifiableList(new ArrayList<C>(population));
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run () {
-                synchronized (SwingSolverCallbackHelper.this) {
-                    callbacks.startStep(step, clonedPopulation);
-                }
-            }
-        });
+    public void startStep (final SolverStep<V,C> step, final Population<C> population) {
+        super.startStep(step, population);
+        publish(Event.START_STEP, step, population, false);
     }
 
     @Override
-    public void endStep (final List<C> population) {
-        final List<C> clonedPopulation = Collections.unmodifiableList(new ArrayList<C>(population));
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run () {
-                synchronized (SwingSolverCallbackHelper.this) {
-                    callbacks.endStep(clonedPopulation);
-                }
-            }
-        });
+    public void endStep (final Population<C> population) {
+        super.endStep(population);
+        publish(Event.END_STEP, null, population, false);
     }
 
     @Override
-    public void endGeneration (final List<C> population) {
-        final List<C> clonedPopulation = Collections.unmodifiableList(new ArrayList<C>(population));
-        SwingUtilities.invokeLater(new Runnable() {
-            @Override
-            public void run () {
-                synchronized (SwingSolverCallbackHelper.this) {
-                    callbacks.endGeneration(clonedPopulation);
-                }
-            }
-        });
+    public void endGeneration (final Population<C> population) {
+        super.endGeneration(population);
+        stopping = stopRequested || super.shouldStop();
+        publish(Event.END_GENERATION, null, population, stopping);
     }
 
     @Override
     public void endProcess (final SolverTrace<V,C> trace) {
+        super.endProcess(trace);
+        send(Event.END_PROCESS, trace);
+    }
+
+    /**
+     * Publishes a snapshot of a generation or step event, if the listener consumes it and a frame has passed since the
+     * last one.
+     */
+    private void publish (
+        final Event event, final SolverStep<V,C> step, final Population<C> population, final boolean force)
+    {
+        if (!events.contains(event)) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        if (!force && now - nextFrame < 0) {
+            return;
+        }
+        nextFrame = now + FRAME_NANOS;
+
+        final Population<C> copy = Population.unmodifiable(new Population<C>(population));
+        if (latest.getAndSet(new Snapshot<V,C>(this, event, step, copy, null)) == null) {
+            SwingUtilities.invokeLater(flush);
+        }
+    }
+
+    /** Sends a snapshot of a process event, if the listener consumes it, after every published snapshot */
+    private void send (final Event event, final SolverTrace<V,C> trace) {
+        if (!events.contains(event)) {
+            return;
+        }
+
+        final Snapshot<V,C> snapshot = new Snapshot<V,C>(this, event, null, null, trace);
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run () {
-                synchronized (SwingSolverCallbackHelper.this) {
-                    callbacks.endProcess(trace);
-                }
+                listener.update(snapshot);
             }
         });
     }
 
+    // =========================
+    // === LISTENER & EVENTS ===
+
+    /**
+     * Events of a solving process that can be forwarded to a {@link Listener}.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    public static enum Event {
+        /** The process started */
+        START_PROCESS,
+
+        /** A generation started */
+        START_GENERATION,
+
+        /** A step started */
+        START_STEP,
+
+        /** A step ended */
+        END_STEP,
+
+        /** A generation ended */
+        END_GENERATION,
+
+        /** The process ended */
+        END_PROCESS;
+    }
+
+    /**
+     * Receiver of the snapshots of a solving process, always called on the Event Dispatch Thread.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <V> Type of the values
+     * @param <C> Type of the chromosomes
+     */
+    public interface Listener<V, C extends Chromosome<C>> {
+
+        /**
+         * Declares the events this listener consumes. Called once, when the bridge is created.
+         * 
+         * @return The events this listener consumes
+         */
+        public abstract Set<Event> getEvents ();
+
+        /**
+         * Receives the latest snapshot of the process.
+         * 
+         * @param snapshot The latest snapshot
+         */
+        public abstract void update (Snapshot<V,C> snapshot);
+    }
+
+    /**
+     * The state of a solving process when an event occurred.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <V> Type of the values
+     * @param <C> Type of the chromosomes
+     */
+    public static final class Snapshot<V, C extends Chromosome<C>> {
+
+        private final Event event;
+        private final Problem<V,C> problem;
+        private final int generation;
+        private final int completedGenerations;
+        private final int stall;
+        private final C best;
+        private final double bestFitness;
+        private final SolverStep<V,C> step;
+        private final Population<C> population;
+        private final SolverTrace<V,C> trace;
+
+        /* package */Snapshot (
+            final SwingSolverCallbackHelper<V,C> helper, final Event event, final SolverStep<V,C> step,
+            final Population<C> population, final SolverTrace<V,C> trace)
+        {
+            this.event = event;
+            this.problem = helper.problem;
+            this.generation = helper.getCurrentGeneration();
+            this.completedGenerations = helper.getCompletedGenerations();
+            this.stall = helper.getCurrentStall();
+            this.best = helper.getBest();
+            this.bestFitness = helper.getBestFitness();
+            this.step = step;
+            this.population = population;
+            this.trace = trace;
+        }
+
+        /** @return The event that produced this snapshot */
+        public Event getEvent () {
+            return event;
+        }
+
+        /** @return The problem being solved */
+        public Problem<V,C> getProblem () {
+            return problem;
+        }
+
+        /** @return Number of the generation being processed, or the last one processed */
+        public int getGeneration () {
+            return generation;
+        }
+
+        /** @return Number of generations processed */
+        public int getCompletedGenerations () {
+            return completedGenerations;
+        }
+
+        /** @return Number of generations processed without improving the best fitness */
+        public int getStall () {
+            return stall;
+        }
+
+        /** @return The best chromosome seen, or <tt>null</tt> if none was seen */
+        public C getBest () {
+            return best;
+        }
+
+        /** @return Fitness of the best chromosome seen, or <tt>NaN</tt> if none was seen */
+        public double getBestFitness () {
+            return bestFitness;
+        }
+
+        /** @return The step that started, for {@link Event#START_STEP} snapshots, or <tt>null</tt> */
+        public SolverStep<V,C> getStep () {
+            return step;
+        }
+
+        /** @return A copy of the population, for generation and step snapshots, or <tt>null</tt> */
+        public Population<C> getPopulation () {
+            return population;
+        }
+
+        /** @return The trace of the process, for {@link Event#END_PROCESS} snapshots, or <tt>null</tt> */
+        public SolverTrace<V,C> getTrace () {
+            return trace;
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package pe1314.g11.pr1;
 
-import java.math.BigInteger;
 import java.util.Random;
 
 import pe1314.g11.Problem;
@@ -28,9 +27,15 @@ public final class P1F1Problem extends Problem<Double,BinaryChromosome> {
     private static final double DOMAIN_MAX = 25.0;
 
     private final int length;
+    private final VariableDecoder decoder;
 
     public P1F1Problem (final double precission) {
+        this(precission, VariableDecoder.Encoding.BINARY);
+    }
+
+    public P1F1Problem (final double precission, final VariableDecoder.Encoding encoding) {
         length = (int) Math.ceil(Math.log((DOMAIN_MAX - DOMAIN_MIN) / precission) / Math.log(2));
+        decoder = new VariableDecoder(0, length, DOMAIN_MIN, DOMAIN_MAX, encoding);
     }
 
     @Override
@@ -40,14 +45,12 @@ public final class P1F1Problem extends Problem<Double,BinaryChromosome> {
 
     @Override
     public Double value (final BinaryChromosome chromosome) {
-        final double binVal = chromosome.toBigInteger().doubleValue();
-        final double binMax = BigInteger.ONE.shiftLeft(length).doubleValue();
-        return Double.valueOf(DOMAIN_MIN + (binVal / binMax * (DOMAIN_MAX - DOMAIN_MIN)));
+        return Double.valueOf(decoder.decode(chromosome));
     }
 
     @Override
     public double fitness (final BinaryChromosome chromosome) {
-        final double x = value(chromosome).doubleValue();
+        final double x = decoder.decode(chromosome);
         return (Math.sin(x)) / (1.0 + Math.sqrt(x) + (Math.cos(x) / (1.0 + x)));
     }
 
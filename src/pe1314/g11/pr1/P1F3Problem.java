@@ -1,6 +1,5 @@
 package pe1314.g11.pr1;
 
-import java.math.BigInteger;
 import java.util.Random;
 
 import pe1314.g11.Problem;
@@ -16,10 +15,18 @@ public final class P1F3Problem extends Problem<DoubleDouble,BinaryChromosome> {
 
     private final int lengthX;
     private final int lengthY;
+    private final VariableDecoder decoderX;
+    private final VariableDecoder decoderY;
 
     public P1F3Problem (final double precission) {
+        this(precission, VariableDecoder.Encoding.BINARY);
+    }
+
+    public P1F3Problem (final double precission, final VariableDecoder.Encoding encoding) {
         lengthX = (int) Math.ceil(Math.log((DOMAIN_MAX_X - DOMAIN_MIN_X) / precission) / Math.log(2));
         lengthY = (int) Math.ceil(Math.log((DOMAIN_MAX_Y - DOMAIN_MIN_Y) / precission) / Math.log(2));
+        decoderX = new VariableDecoder(0, lengthX, DOMAIN_MIN_X, DOMAIN_MAX_X, encoding);
+        decoderY = new VariableDecoder(lengthX, lengthY, DOMAIN_MIN_Y, DOMAIN_MAX_Y, encoding);
     }
 
     @Override
@@ -29,20 +36,15 @@ public final class P1F3Problem extends Problem<DoubleDouble,BinaryChromosome> {
 
     @Override
     public DoubleDouble value (final BinaryChromosome chromosome) {
-        final double x = chromosome.toPartialBigInteger(0, lengthX).doubleValue();
-        final double y = chromosome.toPartialBigInteger(lengthX, lengthY).doubleValue();
-        final double mx = BigInteger.ONE.shiftLeft(lengthX).doubleValue();
-        final double my = BigInteger.ONE.shiftLeft(lengthY).doubleValue();
         return new DoubleDouble(//
-            Double.valueOf(DOMAIN_MIN_X + (x / mx * (DOMAIN_MAX_X - DOMAIN_MIN_X))), //
-            Double.valueOf(DOMAIN_MIN_Y + (y / my * (DOMAIN_MAX_Y - DOMAIN_MIN_Y))));
+            Double.valueOf(decoderX.decode(chromosome)), //
+            Double.valueOf(decoderY.decode(chromosome)));
     }
 
     @Override
     public double fitness (final BinaryChromosome chromosome) {
-        final DoubleDouble xy = value(chromosome);
-        final double x = xy.getX().doubleValue();
-        final double y = xy.getY().doubleValue();
+        final double x = decoderX.decode(chromosome);
+        final double y = decoderY.decode(chromosome);
         return 21.5 + x * Math.sin(4 * Math.PI * x) + y * Math.sin(20 * Math.PI * y);
     }
 
@@ -1,6 +1,5 @@
 package pe1314.g11.pr1;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -16,10 +15,22 @@ public class P1F4Problem extends Problem<List<Double>,BinaryChromosome> {
 
     private final int length;
     private final int n;
+    private final VariableDecoder[] decoders;
 
     public P1F4Problem (final double precission, final int n) {
+        this(precission, n, VariableDecoder.Encoding.BINARY);
+    }
+
+    public P1F4Problem (final double precission, final int n, final VariableDecoder.Encoding encoding) {
         length = (int) Math.ceil(Math.log((DOMAIN_MAX - DOMAIN_MIN) / precission) / Math.log(2));
         this.n = n;
+
+        // Every variable shares the table of the first one
+        decoders = new VariableDecoder[n];
+        final VariableDecoder decoder = new VariableDecoder(0, length, DOMAIN_MIN, DOMAIN_MAX, encoding);
+        for (int i = 0; i < n; i++) {
+            decoders[i] = decoder.at(length * i);
+        }
     }
 
     @Override
@@ -29,21 +40,18 @@ public class P1F4Problem extends Problem<List<Double>,BinaryChromosome> {
 
     @Override
     public List<Double> value (final BinaryChromosome chromosome) {
-        final double max = BigInteger.ONE.shiftLeft(length).doubleValue();
-        final List<Double> list = new ArrayList<Double>();
+        final List<Double> list = new ArrayList<Double>(n);
         for (int i = 0; i < n; i++) {
-            final double x = chromosome.toPartialBigInteger(length * i, length).doubleValue();
-            list.add(Double.valueOf(DOMAIN_MIN + (x / max * (DOMAIN_MAX - DOMAIN_MIN))));
+            list.add(Double.valueOf(decoders[i].decode(chromosome)));
         }
         return Collections.unmodifiableList(list);
     }
 
     @Override
     public double fitness (final BinaryChromosome chromosome) {
-        final List<Double> list = value(chromosome);
         double result = 0;
         for (int i = 1; i <= n; i++) {
-            final double x = list.get(i - 1).doubleValue();
+            final double x = decoders[i - 1].decode(chromosome);
             result -= Math.sin(x) * Math.pow((Math.sin(((i + 2) * (x * x) / Math.PI))), 20);
         }
         return result;
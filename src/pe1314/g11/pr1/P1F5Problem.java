@@ -1,6 +1,5 @@
 package pe1314.g11.pr1;
 
-import java.math.BigInteger;
 import java.util.Random;
 
 import pe1314.g11.Problem;
@@ -13,9 +12,17 @@ public class P1F5Problem extends Problem<DoubleDouble,BinaryChromosome> {
     private static final double DOMAIN_MAX = 10.0;
 
     private final int length;
+    private final VariableDecoder decoderX;
+    private final VariableDecoder decoderY;
 
     public P1F5Problem (final double precission) {
+        this(precission, VariableDecoder.Encoding.BINARY);
+    }
+
+    public P1F5Problem (final double precission, final VariableDecoder.Encoding encoding) {
         length = (int) Math.ceil(Math.log((DOMAIN_MAX - DOMAIN_MIN) / precission) / Math.log(2));
+        decoderX = new VariableDecoder(0, length, DOMAIN_MIN, DOMAIN_MAX, encoding);
+        decoderY = decoderX.at(length);
     }
 
     @Override
@@ -25,19 +32,15 @@ public class P1F5Problem extends Problem<DoubleDouble,BinaryChromosome> {
 
     @Override
     public DoubleDouble value (final BinaryChromosome chromosome) {
-        final double x = chromosome.toPartialBigInteger(0, length).doubleValue();
-        final double y = chromosome.toPartialBigInteger(length, length).doubleValue();
-        final double max = BigInteger.ONE.shiftLeft(length).doubleValue();
         return new DoubleDouble(//
-            Double.valueOf(DOMAIN_MIN + (x / max * (DOMAIN_MAX - DOMAIN_MIN))), //
-            Double.valueOf(DOMAIN_MIN + (y / max * (DOMAIN_MAX - DOMAIN_MIN))));
+            Double.valueOf(decoderX.decode(chromosome)), //
+            Double.valueOf(decoderY.decode(chromosome)));
     }
 
     @Override
     public double fitness (final BinaryChromosome chromosome) {
-        final DoubleDouble xy = value(chromosome);
-        final double x = xy.getX().doubleValue();
-        final double y = xy.getY().doubleValue();
+        final double x = decoderX.decode(chromosome);
+        final double y = decoderY.decode(chromosome);
         double left = 0.0;
         double right = 0.0;
         for (int i = 1; i <= 5; i++) {
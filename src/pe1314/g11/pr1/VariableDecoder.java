@@ -0,0 +1,173 @@
+package pe1314.g11.pr1;
+
+import pe1314.g11.sga.BinaryChromosome;
+
+/**
+ * A decoder of a real variable stored as a range of bits of a {@link BinaryChromosome}.
+ * <p>
+ * The bits are read as an unsigned integer <tt>k</tt> of <tt>n</tt> bits, using the {@link Encoding} of the decoder,
+ * which is mapped linearly to <tt>min + k (max - min) / 2<sup>n</sup></tt>. The scale of the mapping is computed once,
+ * and the bits are read straight from the words of the chromosome, so decoding allocates nothing. Variables of up to
+ * {@link #TABLE_BITS} bits are decoded with a table of every value, computed once.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class VariableDecoder {
+
+    /** Maximum number of bits of a variable */
+    public static final int MAX_BITS = 63;
+
+    /** Maximum number of bits of a variable decoded with a table */
+    public static final int TABLE_BITS = 16;
+
+    private final int first;
+    private final int bits;
+    private final Encoding encoding;
+    private final double min;
+    private final double scale;
+
+    /** Value of every possible bit string, or <tt>null</tt> if the variable is too long */
+    private final double[] table;
+
+    /**
+     * Creates a decoder that uses the {@link Encoding#BINARY binary} encoding.
+     * 
+     * @param first First bit of the variable on the chromosome
+     * @param bits Number of bits of the variable, up to {@link #MAX_BITS}
+     * @param min Value of the variable when all its bits are zero
+     * @param max Upper bound of the variable, never reached
+     */
+    public VariableDecoder (final int first, final int bits, final double min, final double max) {
+        this(first, bits, min, max, Encoding.BINARY);
+    }
+
+    /**
+     * @param first First bit of the variable on the chromosome
+     * @param bits Number of bits of the variable, up to {@link #MAX_BITS}
+     * @param min Value of the variable when all its bits are zero
+     * @param max Upper bound of the variable, never reached
+     * @param encoding Encoding of the bits of the variable
+     */
+    public VariableDecoder (
+        final int first, final int bits, final double min, final double max, final Encoding encoding)
+    {
+        if (first < 0) {
+            throw new IllegalArgumentException("invalid first bit: " + first);
+        }
+        if (bits < 0 || bits > MAX_BITS) {
+            throw new IllegalArgumentException("invalid number of bits: " + bits);
+        }
+        if (encoding == null) {
+            throw new NullPointerException("encoding");
+        }
+
+        this.first = first;
+        this.bits = bits;
+        this.encoding = encoding;
+        this.min = min;
+        this.scale = (max - min) / (1L << bits);
+
+        if (bits <= TABLE_BITS) {
+            table = new double[1 << bits];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = min + encoding.toInteger(i) * scale;
+            }
+        } else {
+            table = null;
+        }
+    }
+
+    /** Creates a decoder equal to <tt>other</tt> on another position, sharing its table */
+    private VariableDecoder (final VariableDecoder other, final int first) {
+        if (first < 0) {
+            throw new IllegalArgumentException("invalid first bit: " + first);
+        }
+
+        this.first = first;
+        this.bits = other.bits;
+        this.encoding = other.encoding;
+        this.min = other.min;
+        this.scale = other.scale;
+        this.table = other.table;
+    }
+
+    /**
+     * Returns a decoder of a variable with the same bits, range and encoding as this one, starting on another bit of
+     * the chromosome. Both decoders share their table, if any.
+     * 
+     * @param first First bit of the variable on the chromosome
+     * @return A new decoder
+     */
+    public VariableDecoder at (final int first) {
+        return new VariableDecoder(this, first);
+    }
+
+    /** @return First bit of the variable on the chromosome */
+    public int getFirst () {
+        return first;
+    }
+
+    /** @return Number of bits of the variable */
+    public int getBits () {
+        return bits;
+    }
+
+    /** @return Encoding of the bits of the variable */
+    public Encoding getEncoding () {
+        return encoding;
+    }
+
+    /**
+     * @param chromosome A chromosome that contains the variable
+     * @return The value of the variable on <tt>chromosome</tt>
+     */
+    public double decode (final BinaryChromosome chromosome) {
+        final long value = chromosome.getBits(first, bits);
+        if (table != null) {
+            return table[(int) value];
+        }
+        return min + encoding.toInteger(value) * scale;
+    }
+
+    /**
+     * The ways a variable can be encoded as bits.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    public static enum Encoding {
+        /** The bits are the binary representation of the integer */
+        BINARY {
+            @Override
+            public long toInteger (final long code) {
+                return code;
+            }
+        },
+
+        /**
+         * The bits are the reflected Gray code of the integer, so consecutive integers differ in a single bit, and
+         * every value can reach its neighbours by mutating a single bit
+         */
+        GRAY {
+            @Override
+            public long toInteger (final long code) {
+                // Prefix XOR of the bits, from the highest one, in 6 steps
+                long value = code;
+                value ^= value >>> 1;
+                value ^= value >>> 2;
+                value ^= value >>> 4;
+                value ^= value >>> 8;
+                value ^= value >>> 16;
+                value ^= value >>> 32;
+                return value;
+            }
+        };
+
+        /**
+         * @param code Bits of a variable, as the lowest bits of a number
+         * @return The integer they encode
+         */
+        public abstract long toInteger (long code);
+    }
+}
@@ -2,14 +2,13 @@ package pe1314.g11.pr2;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
 
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
 import pe1314.g11.sga.PermutationChromosome;
-import pe1314.g11.util.FitnessComparator;
 import pe1314.g11.util.PermutationUtils;
 
 public class HeuristicMutationStep<V> implements SolverStep<V,PermutationChromosome> {
@@ -28,33 +27,39 @@ public class HeuristicMutationStep<V> implements SolverStep<V,PermutationChromos
 
     @Override
     public void apply (
-        final Problem<V,PermutationChromosome> problem, final List<PermutationChromosome> input, final Random random,
-        final int generation, final List<PermutationChromosome> output)
+        final Problem<V,PermutationChromosome> problem, final Population<PermutationChromosome> input,
+        final Random random, final int generation, final Population<PermutationChromosome> output)
     {
         // For every input chromosome...
-        for (PermutationChromosome chromo : input) {
+        for (int n = 0; n < input.size(); n++) {
+            PermutationChromosome chromo = input.get(n);
+
             // For every mutable place...
             for (int i = 0; i < chromo.getMutationPlaces(); i++) {
                 // Should we mutate this place?
                 if (random.nextDouble() < probability) {
-                    chromo = performMutation(chromo, problem, random);
+                    chromo = performMutation(chromo, problem, random, output);
                 }
             }
 
-            output.add(chromo);
+            if (chromo == input.get(n)) {
+                output.addFrom(input, n);
+            } else {
+                output.add(chromo);
+            }
         }
     }
 
     private PermutationChromosome performMutation (
-        final PermutationChromosome chromo, final Problem<V,PermutationChromosome> problem, final Random random)
+        final PermutationChromosome chromo, final Problem<V,PermutationChromosome> problem, final Random random,
+        final Population<PermutationChromosome> output)
     {
-        final Comparator<PermutationChromosome> comp = new FitnessComparator<>(problem);
-
         final List<Integer> operm = chromo.getPermutation();
         final List<Integer> perm = new ArrayList<>(operm);
         final int spsize = Math.min(NMAX, random.nextInt(perm.size() - NMIN) + NMIN);
 
         PermutationChromosome best = null;
+        double bestFitness = Double.NaN;
 
         final List<Integer> elems = selectRandom(perm.size(), spsize, random);
         final Iterable<List<Integer>> permutations = PermutationUtils.permutations(elems);
@@ -65,8 +70,10 @@ public class HeuristicMutationStep<V> implements SolverStep<V,PermutationChromos
             }
 
             final PermutationChromosome curr = new PermutationChromosome(perm);
-            if (best == null || comp.compare(curr, best) < 0) {
+            final double currFitness = output.evaluate(curr);
+            if (best == null || problem.type().compare(currFitness, bestFitness) < 0) {
                 best = curr;
+                bestFitness = currFitness;
             }
         }
 
@@ -2,10 +2,10 @@ package pe1314.g11.pr2;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
 import pe1314.g11.sga.PermutationChromosome;
@@ -25,15 +25,14 @@ public final class PositionPriorityOrderCombinationStep<V> implements SolverStep
 
     @Override
     public void apply (
-        final Problem<V,PermutationChromosome> problem, final List<PermutationChromosome> input, final Random random,
-        final int generation, final List<PermutationChromosome> output)
+        final Problem<V,PermutationChromosome> problem, final Population<PermutationChromosome> input,
+        final Random random, final int generation, final Population<PermutationChromosome> output)
     {
-        final Iterator<PermutationChromosome> it = input.iterator();
-        while (it.hasNext()) {
-            final PermutationChromosome a = it.next();
+        for (int i = 0; i < input.size(); i += 2) {
+            final PermutationChromosome a = input.get(i);
 
-            if (it.hasNext()) {
-                final PermutationChromosome b = it.next();
+            if (i + 1 < input.size()) {
+                final PermutationChromosome b = input.get(i + 1);
 
                 if (random.nextDouble() < probability) {
                     final int place = random.nextInt(a.getCombinationPlaces());
@@ -48,12 +47,12 @@ public final class PositionPriorityOrderCombinationStep<V> implements SolverStep
                     output.add(performCombination(b, a, random, selected));
 
                 } else {
-                    output.add(a);
-                    output.add(b);
+                    output.addFrom(input, i);
+                    output.addFrom(input, i + 1);
                 }
 
             } else {
-                output.add(a);
+                output.addFrom(input, i);
             }
         }
     }
@@ -1,11 +1,22 @@
 package pe1314.g11.pr3;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.ChromosomeCodec;
 
 public class LispChromosome extends Chromosome<LispChromosome> implements Comparable<LispChromosome> {
 
+    /**
+     * Codec that stores the tree in prefix order, with one byte per node for lists and for the symbols known by
+     * {@link LispUtils}
+     */
+    public static final ChromosomeCodec<LispChromosome> CODEC = new Codec();
+
     private final LispList list;
 
     public LispChromosome (final LispList l) {
@@ -50,6 +61,11 @@ public class LispChromosome extends Chromosome<LispChromosome> implements Compar
         return this;
     }
 
+    @Override
+    public long fingerprint () {
+        return list.fingerprint();
+    }
+
     @Override
     public int hashCode () {
         return list.hashCode();
@@ -73,4 +89,117 @@ public class LispChromosome extends Chromosome<LispChromosome> implements Compar
     public int compareTo (final LispChromosome o) {
         return list.compareTo(o.list);
     }
+
+    /** Codec for LISP chromosomes */
+    private static final class Codec implements ChromosomeCodec<LispChromosome> {
+
+        /** Tag of a list, whose size is stored on the lowest bits */
+        private static final int TAG_LIST = 0x80;
+
+        /** Tag of a list too long for its size to fit on the tag, followed by its size */
+        private static final int TAG_LONG_LIST = 0xFF;
+
+        /** Tag of a terminal that is not a known symbol, followed by its text */
+        private static final int TAG_TEXT = 0x7F;
+
+        /** Symbols encoded by their position */
+        private final List<String> symbols = new ArrayList<>();
+
+        /* package */Codec () {
+            symbols.addAll(LispUtils.FUNCTIONS);
+            symbols.addAll(LispUtils.TERMINALS);
+        }
+
+        @Override
+        public int size (final LispChromosome chromo) {
+            return size(chromo.list);
+        }
+
+        @Override
+        public void encode (final LispChromosome chromo, final ByteBuffer buffer) {
+            encode(chromo.list, buffer);
+        }
+
+        @Override
+        public LispChromosome decode (final ByteBuffer buffer) {
+            final LispValue value = decodeValue(buffer);
+            if (!(value instanceof LispList)) {
+                throw new IllegalArgumentException("not a list: " + value);
+            }
+            return new LispChromosome((LispList) value);
+        }
+
+        private int size (final LispValue value) {
+            if (value instanceof LispList) {
+                final LispList ll = (LispList) value;
+                int size = (ll.size() < TAG_LONG_LIST - TAG_LIST) ? 1 : 5;
+                for (final LispValue lv : ll.values()) {
+                    size += size(lv);
+                }
+                return size;
+            }
+
+            final String text = value.toString();
+            if (symbols.contains(text)) {
+                return 1;
+            }
+            return 3 + text.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        private void encode (final LispValue value, final ByteBuffer buffer) {
+            if (value instanceof LispList) {
+                final LispList ll = (LispList) value;
+                if (ll.size() < TAG_LONG_LIST - TAG_LIST) {
+                    buffer.put((byte) (TAG_LIST | ll.size()));
+                } else {
+                    buffer.put((byte) TAG_LONG_LIST);
+                    buffer.putInt(ll.size());
+                }
+
+                for (final LispValue lv : ll.values()) {
+                    encode(lv, buffer);
+                }
+                return;
+            }
+
+            final String text = value.toString();
+            final int symbol = symbols.indexOf(text);
+            if (symbol >= 0) {
+                buffer.put((byte) symbol);
+            } else {
+                final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                buffer.put((byte) TAG_TEXT);
+                buffer.putShort((short) bytes.length);
+                buffer.put(bytes);
+            }
+        }
+
+        private LispValue decodeValue (final ByteBuffer buffer) {
+            final int tag = buffer.get() & 0xFF;
+
+            if (tag >= TAG_LIST) {
+                final int size = (tag == TAG_LONG_LIST) ? buffer.getInt() : tag & ~TAG_LIST;
+                if (size < 0) {
+                    throw new IllegalArgumentException("invalid list size (" + size + ")");
+                }
+
+                final List<LispValue> values = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    values.add(decodeValue(buffer));
+                }
+                return new LispList(values);
+            }
+
+            if (tag == TAG_TEXT) {
+                final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(bytes);
+                return new LispTerminal(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            if (tag >= symbols.size()) {
+                throw new IllegalArgumentException("invalid symbol (" + tag + ")");
+            }
+            return new LispTerminal(symbols.get(tag));
+        }
+    }
 }
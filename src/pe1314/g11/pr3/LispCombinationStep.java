@@ -1,10 +1,10 @@
 package pe1314.g11.pr3;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
 
@@ -22,15 +22,14 @@ public class LispCombinationStep implements SolverStep<LispList,LispChromosome>
 
     @Override
     public void apply (
-        final Problem<LispList,LispChromosome> problem, final List<LispChromosome> input, final Random random,
-        final int generation, final List<LispChromosome> output)
+        final Problem<LispList,LispChromosome> problem, final Population<LispChromosome> input, final Random random,
+        final int generation, final Population<LispChromosome> output)
     {
-        final Iterator<LispChromosome> it = input.iterator();
-        while (it.hasNext()) {
-            final LispChromosome a = it.next();
+        for (int i = 0; i < input.size(); i += 2) {
+            final LispChromosome a = input.get(i);
 
-            if (it.hasNext()) {
-                final LispChromosome b = it.next();
+            if (i + 1 < input.size()) {
+                final LispChromosome b = input.get(i + 1);
 
                 if (random.nextDouble() < probability) {
                     final int posA = random.nextInt(a.getLispList().expressions() - 1);
@@ -40,12 +39,12 @@ public class LispCombinationStep implements SolverStep<LispList,LispChromosome>
                     output.add(performCombination(b, a, posB, posA));
 
                 } else {
-                    output.add(a);
-                    output.add(b);
+                    output.addFrom(input, i);
+                    output.addFrom(input, i + 1);
                 }
 
             } else {
-                output.add(a);
+                output.addFrom(input, i);
             }
         }
     }
@@ -5,6 +5,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import pe1314.g11.util.Fingerprint;
+
 /**
  * A LISP list value.
  * 
@@ -15,16 +17,20 @@ public final class LispList implements LispValue {
 
     private final List<LispValue> values;
     private final int depth;
+    private final long fingerprint;
 
     public LispList (final List<? extends LispValue> values) {
         this.values = Collections.unmodifiableList(new ArrayList<LispValue>(values));
         
-        // depth
+        // depth and fingerprint, from those of the values
         int max = 0;
+        long fp = Fingerprint.add(Fingerprint.SEED, 1);
         for (final LispValue lv : values) {
             max = Math.max(max, lv.depth());
+            fp = Fingerprint.add(fp, lv.fingerprint());
         }
         depth = 1 + max;
+        fingerprint = Fingerprint.add(fp, values.size());
     }
 
     public int size () {
@@ -44,9 +50,14 @@ public final class LispList implements LispValue {
         return values;
     }
 
+    @Override
+    public long fingerprint () {
+        return fingerprint;
+    }
+
     @Override
     public int hashCode () {
-        return super.hashCode();
+        return Fingerprint.hash(fingerprint);
     }
 
     @Override
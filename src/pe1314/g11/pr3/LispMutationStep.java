@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
 
@@ -24,11 +25,13 @@ public class LispMutationStep implements SolverStep<LispList,LispChromosome> {
 
     @Override
     public void apply (
-        final Problem<LispList,LispChromosome> problem, final List<LispChromosome> input, final Random random,
-        final int generation, final List<LispChromosome> output)
+        final Problem<LispList,LispChromosome> problem, final Population<LispChromosome> input, final Random random,
+        final int generation, final Population<LispChromosome> output)
     {
         // For every input chromosome...
-        for (LispChromosome chromo : input) {
+        for (int n = 0; n < input.size(); n++) {
+            LispChromosome chromo = input.get(n);
+
             // For every mutable place...
             for (int i = 0; i < chromo.getMutationPlaces(); i++) {
                 // Should we mutate this place?
@@ -37,7 +40,11 @@ public class LispMutationStep implements SolverStep<LispList,LispChromosome> {
                 }
             }
 
-            output.add(chromo);
+            if (chromo == input.get(n)) {
+                output.addFrom(input, n);
+            } else {
+                output.add(chromo);
+            }
         }
     }
 
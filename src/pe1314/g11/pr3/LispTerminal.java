@@ -2,6 +2,8 @@ package pe1314.g11.pr3;
 
 import java.util.Objects;
 
+import pe1314.g11.util.Fingerprint;
+
 /**
  * A LISP terminal value.
  * 
@@ -11,9 +13,11 @@ import java.util.Objects;
 public final class LispTerminal implements LispValue {
 
     private final String string;
+    private final long fingerprint;
 
     public LispTerminal (final String string) {
         this.string = Objects.requireNonNull(string, "string");
+        this.fingerprint = Fingerprint.add(Fingerprint.add(Fingerprint.SEED, 0), string);
     }
 
     @Override
@@ -21,6 +25,11 @@ public final class LispTerminal implements LispValue {
         return 0;
     }
 
+    @Override
+    public long fingerprint () {
+        return fingerprint;
+    }
+
     @Override
     public int hashCode () {
         return string.hashCode();
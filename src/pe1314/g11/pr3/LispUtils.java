@@ -15,9 +15,9 @@ import java.util.Random;
  */
 public class LispUtils {
 
-    private static final List<String> FUNCTIONS = Arrays.asList(
+    /* package */static final List<String> FUNCTIONS = Arrays.asList(
         LispGameRunner.IF, LispGameRunner.EQ, LispGameRunner.PROG2, LispGameRunner.PROG3);
-    private static final List<String> TERMINALS = Arrays.asList(
+    /* package */static final List<String> TERMINALS = Arrays.asList(
         LispGameRunner.LEFT, LispGameRunner.RIGHT, LispGameRunner.SHOOT, LispGameRunner.DST_X, LispGameRunner.DST_Y);
 
     private static final Map<String,Integer> ARITY = new HashMap<String,Integer>() {
@@ -7,4 +7,12 @@ public interface LispValue extends Comparable<LispValue> {
     public abstract int nodes ();
 
     public abstract int expressions ();
+
+    /**
+     * Obtain a 64-bit fingerprint of the structure of this value, computed when it is created.
+     * 
+     * @return Fingerprint of this value
+     * @see pe1314.g11.util.Fingerprint
+     */
+    public abstract long fingerprint ();
 }
@@ -1,8 +1,8 @@
 package pe1314.g11.pr3;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import pe1314.g11.Problem;
 import pe1314.g11.util.XorShiftRandom;
@@ -14,7 +14,7 @@ public class SpaceInvadersProblem extends Problem<LispList,LispChromosome> {
 
     private final int fitnessType;
     private final int bloatingPenaltyType;
-    private final Map<LispChromosome,Double> cache = new HashMap<>();
+    private final ConcurrentMap<LispChromosome,Double> cache = new ConcurrentHashMap<>();
 
     private final boolean complete;
     private final int depth;
@@ -38,8 +38,9 @@ public class SpaceInvadersProblem extends Problem<LispList,LispChromosome> {
 
     @Override
     public double fitness (final LispChromosome chromosome) {
-        if (isInCache(chromosome)) {
-            return getFromCache(chromosome);
+        final Double cached = cache.get(chromosome);
+        if (cached != null) {
+            return cached.doubleValue();
         }
 
         double fitness = bloatingPenalty(chromosome, fitnessType == 0 ? calcFitnessA(chromosome) : calcFitnessB(chromosome));
@@ -138,14 +139,6 @@ public class SpaceInvadersProblem extends Problem<LispList,LispChromosome> {
         cache.put(chromosome, Double.valueOf(fitness));
     }
 
-    private double getFromCache (final LispChromosome chromosome) {
-        return cache.get(chromosome).doubleValue();
-    }
-
-    private boolean isInCache (final LispChromosome chromosome) {
-        return cache.containsKey(chromosome);
-    }
-
     @Override
     public Problem.Type type () {
         return Problem.Type.MINIMIZATION;
@@ -1,38 +1,108 @@
 package pe1314.g11.sga;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.ChromosomeCodec;
+import pe1314.g11.util.Fingerprint;
+import pe1314.g11.util.MutationPlaces;
 import pe1314.g11.util.XorShiftRandom;
 
 /**
  * A chromosome that uses a bit string.
+ * <p>
+ * Bits are packed in an array of <tt>long</tt> words, the bit <tt>i</tt> being the bit <tt>i % 64</tt> of the word
+ * <tt>i / 64</tt>, and the bits of the last word beyond the length are always zero. Operators work on whole words:
+ * mutating is a single <tt>XOR</tt>, and combining copies the words of every parent and merges the words between them
+ * with a mask, on one, two or {@link #getCombined(BinaryChromosome, int[], int) any number} of points, or on
+ * {@link #getCombined(BinaryChromosome, long[]) a random mask per word} for the uniform combination. The words can be
+ * read with {@link #getWord(int)}, but never modified.
  * 
  * @author Daniel Escoz Solana
  * @author Pedro Morgado Alarc&oacute;n
  */
 public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
 
+    /** Combination that takes the bits before the combination place from the other chromosome */
+    public static final int COMBINATION_ONE_POINT = 0;
+
+    /** Combination that takes the bits out of the combined segment from the other chromosome */
+    public static final int COMBINATION_TWO_POINT = 1;
+
+    /**
+     * Combination that takes every bit from any of the chromosomes with the same probability, using a random mask word
+     * per 64 bits. {@link #combine combine} draws the masks from its random generator, and uses the same ones for both
+     * children, so they are complementary. A place and a length cannot describe the masks, so
+     * {@link #getCombined(BinaryChromosome, int, int, int) getCombined} rejects this type.
+     */
+    public static final int COMBINATION_UNIFORM = 2;
+
+    /**
+     * Combination on any number of different random points, alternating the chromosome the bits come from on every
+     * point, as in {@link #getCombined(BinaryChromosome, int[], int)}. {@link #combine combine} uses the number of
+     * points it is given. A place and a length cannot describe the points, so
+     * {@link #getCombined(BinaryChromosome, int, int, int) getCombined} rejects this type.
+     */
+    public static final int COMBINATION_K_POINT = 3;
+
+    /** Codec that stores the length followed by the bits, 64 at a time */
+    public static final ChromosomeCodec<BinaryChromosome> CODEC = new Codec();
+
     /** Number of bits in this chromosome */
     private final int length;
 
-    /** Bits of this chromosome */
-    private final BitSet bits;
+    /** Bits of this chromosome, packed */
+    private final long[] words;
+
+    /** Fingerprint of the length and bits of this chromosome */
+    private final long fingerprint;
 
     /**
      * @param length Number of bits used in this chromosome
-     * @param bits Bits of this chromosome
+     * @param bits Bits of this chromosome, of which only the first <tt>length</tt> are used
      */
     public BinaryChromosome (final int length, final BitSet bits) {
+        this(length, Arrays.copyOf(bits.toLongArray(), words(length)));
+    }
+
+    /**
+     * Creates a chromosome that takes ownership of <tt>words</tt>, which must not be modified afterwards. The bits
+     * beyond the length are cleared.
+     */
+    private BinaryChromosome (final int length, final long[] words) {
+        if (length < 0) {
+            throw new IllegalArgumentException("invalid length (" + length + ")");
+        }
+
         this.length = length;
-        this.bits = (BitSet) bits.clone();
+        this.words = words;
 
         // Mask the bits of this chromosome
-        final BitSet mask = new BitSet();
-        mask.set(0, length, true);
-        this.bits.intersects(mask);
+        if ((length & 63) != 0) {
+            words[words.length - 1] &= (1L << length) - 1;
+        }
+
+        long fp = Fingerprint.add(Fingerprint.SEED, length);
+        for (final long word : words) {
+            fp = Fingerprint.add(fp, word);
+        }
+        this.fingerprint = fp;
+    }
+
+    /**
+     * Creates a chromosome from packed bits.
+     * 
+     * @param length Number of bits used in the chromosome
+     * @param words Bits of the chromosome, packed as in {@link #getWord(int)}, of which only the first <tt>length</tt>
+     *            are used
+     * @return A new chromosome
+     */
+    public static BinaryChromosome valueOf (final int length, final long[] words) {
+        return new BinaryChromosome(length, Arrays.copyOf(words, words(length)));
     }
 
     /**
@@ -43,12 +113,12 @@ public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
      * @return A new random chromosome
      */
     public static BinaryChromosome newRandom (final int length, final Random random) {
-        final BitSet bits = new BitSet();
-        for (int i = 0; i < length; i++) {
-            bits.set(i, random.nextBoolean());
+        final long[] words = new long[words(length)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = random.nextLong();
         }
 
-        return new BinaryChromosome(length, bits);
+        return new BinaryChromosome(length, words);
     }
 
     /**
@@ -65,6 +135,31 @@ public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
         return length;
     }
 
+    /** @return Number of words used to store the bits of this chromosome */
+    public int getWordCount () {
+        return words.length;
+    }
+
+    /**
+     * @param index Index of a word
+     * @return The bits <tt>64 * index</tt> to <tt>64 * index + 63</tt> of this chromosome, the first one being the
+     *         lowest, and those beyond the length being zero
+     */
+    public long getWord (final int index) {
+        return words[index];
+    }
+
+    /**
+     * @param index Index of a bit
+     * @return Whether the bit at <tt>index</tt> is set
+     */
+    public boolean getBit (final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index);
+        }
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
     @Override
     public int getMutationPlaces () {
         return length;
@@ -76,10 +171,22 @@ public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
             throw new IllegalArgumentException("invalid mutation place (" + place + ")");
         }
 
-        final BitSet newBits = (BitSet) bits.clone();
-        newBits.flip(place);
+        final long[] newWords = words.clone();
+        newWords[place >>> 6] ^= 1L << place;
+
+        return new BinaryChromosome(length, newWords);
+    }
+
+    @Override
+    public BinaryChromosome getMutated (final int type, final int[] places, final int count) {
+        if (count == 0) {
+            return this;
+        }
+
+        final long[] newWords = words.clone();
+        flip(newWords, places, count);
 
-        return new BinaryChromosome(length, newBits);
+        return new BinaryChromosome(length, newWords);
     }
 
     @Override
@@ -87,8 +194,21 @@ public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
         return length - 1;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only {@link #COMBINATION_ONE_POINT} and {@link #COMBINATION_TWO_POINT} can be applied on a place and a length.
+     * The other types need more random numbers, so they must be applied with {@link #combine combine}.
+     * 
+     * @throws IllegalArgumentException if <tt>type</tt> is {@link #COMBINATION_UNIFORM} or {@link #COMBINATION_K_POINT}
+     */
     @Override
     public BinaryChromosome getCombined (final BinaryChromosome other, final int type, final int place, final int len) {
+        return new BinaryChromosome(length, combinedWords(other, type, place, len));
+    }
+
+    /** @return The words of this chromosome combined with <tt>other</tt> on a place and a length */
+    private long[] combinedWords (final BinaryChromosome other, final int type, final int place, final int len) {
         if (length != other.length) {
             throw new IllegalArgumentException("unmatching lengths (" + length + " != " + other.length + ")");
         }
@@ -97,12 +217,167 @@ public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
             throw new IllegalArgumentException("invalid combination place (" + place + ")");
         }
 
-        final BitSet newBits = (BitSet) bits.clone();
-        for (int i = 0; i < place; i++) {
-            newBits.set(i, other.bits.get(i));
+        final long[] newWords = words.clone();
+
+        switch (type) {
+            case COMBINATION_ONE_POINT:
+                copyRange(other.words, newWords, 0, place);
+                break;
+
+            case COMBINATION_TWO_POINT:
+                final int from = Math.min(place, place + len);
+                final int to = Math.max(place, place + len);
+                if (from < 0 || to >= getCombinationPlaces()) {
+                    throw new IllegalArgumentException("invalid combination length (" + len + ")");
+                }
+
+                copyRange(other.words, newWords, 0, from);
+                copyRange(other.words, newWords, to, length);
+                break;
+
+            case COMBINATION_UNIFORM:
+            case COMBINATION_K_POINT:
+                throw new IllegalArgumentException("combination type needs a random generator (" + type + ")");
+
+            default:
+                throw new IllegalArgumentException("invalid combination type (" + type + ")");
+        }
+
+        return newWords;
+    }
+
+    @Override
+    public void combine (
+        final BinaryChromosome other, final int type, final int points, final Random random,
+        final Chromosome<?>[] children)
+    {
+        switch (type) {
+            case COMBINATION_UNIFORM:
+            case COMBINATION_K_POINT:
+                final long[][] combined = combinedWords(other, type, points, random);
+                children[0] = new BinaryChromosome(length, combined[0]);
+                children[1] = new BinaryChromosome(length, combined[1]);
+                break;
+
+            default:
+                super.combine(other, type, points, random, children);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The mutated places of every child are flipped on the same words it is combined on, so every child is built once.
+     */
+    @Override
+    public void combine (
+        final BinaryChromosome other, final int type, final int points, final Random random,
+        final MutationPlaces mutation, final int mutationType, final Chromosome<?>[] children)
+    {
+        final long[][] combined = combinedWords(other, type, points, random);
+
+        for (int i = 0; i < 2; i++) {
+            final int count = mutation.draw(length, random);
+            flip(combined[i], mutation.getPlaces(), count);
+            children[i] = new BinaryChromosome(length, combined[i]);
         }
+    }
 
-        return new BinaryChromosome(length, newBits);
+    /** @return The words of both children of {@link #combine combine}, drawing the same random numbers */
+    private long[][] combinedWords (
+        final BinaryChromosome other, final int type, final int points, final Random random)
+    {
+        switch (type) {
+            case COMBINATION_UNIFORM:
+                final long[] masks = new long[words.length];
+                for (int i = 0; i < masks.length; i++) {
+                    masks[i] = random.nextLong();
+                }
+                return new long[][] { combinedWords(other, masks), other.combinedWords(this, masks) };
+
+            case COMBINATION_K_POINT:
+                final int[] sorted = randomPoints(points, random);
+                return new long[][] { combinedWords(other, sorted, points), other.combinedWords(this, sorted, points) };
+
+            default:
+                // The same places as Chromosome#combine
+                final int places = getCombinationPlaces();
+                final int place = random.nextInt(places);
+                int p2 = place;
+                while (place == p2 && places > 1) {
+                    p2 = random.nextInt(places);
+                }
+                return new long[][] {
+                    combinedWords(other, type, place, p2 - place), other.combinedWords(this, type, place, p2 - place) };
+        }
+    }
+
+    /**
+     * Return a new chromosome combined with another one using a mask per word: every bit set on the mask comes from
+     * <tt>other</tt>, and every other bit from this chromosome. Combining <tt>other</tt> with this chromosome using the
+     * same masks gives the complementary child.
+     * 
+     * @param other Another chromosome for combination
+     * @param masks A mask per word of the chromosomes, as in {@link #getWord(int)}
+     * @return A combined chromosome
+     */
+    public BinaryChromosome getCombined (final BinaryChromosome other, final long[] masks) {
+        return new BinaryChromosome(length, combinedWords(other, masks));
+    }
+
+    /** @return The words of this chromosome combined with <tt>other</tt> using a mask per word */
+    private long[] combinedWords (final BinaryChromosome other, final long[] masks) {
+        if (length != other.length) {
+            throw new IllegalArgumentException("unmatching lengths (" + length + " != " + other.length + ")");
+        }
+        if (masks.length < words.length) {
+            throw new IllegalArgumentException("not enough masks (" + masks.length + " < " + words.length + ")");
+        }
+
+        final long[] newWords = new long[words.length];
+        for (int i = 0; i < newWords.length; i++) {
+            newWords[i] = (words[i] & ~masks[i]) | (other.words[i] & masks[i]);
+        }
+
+        return newWords;
+    }
+
+    /**
+     * Return a new chromosome combined with another one on any number of points. The bits before the first point come
+     * from <tt>other</tt>, the bits between the first and the second point come from this chromosome, and so on,
+     * alternating on every point.
+     * 
+     * @param other Another chromosome for combination
+     * @param points Combination points, in ascending order, from <tt>0</tt> to the length of the chromosomes
+     * @param count Number of points used
+     * @return A combined chromosome
+     */
+    public BinaryChromosome getCombined (final BinaryChromosome other, final int[] points, final int count) {
+        return new BinaryChromosome(length, combinedWords(other, points, count));
+    }
+
+    /** @return The words of this chromosome combined with <tt>other</tt> on any number of points */
+    private long[] combinedWords (final BinaryChromosome other, final int[] points, final int count) {
+        if (length != other.length) {
+            throw new IllegalArgumentException("unmatching lengths (" + length + " != " + other.length + ")");
+        }
+
+        final long[] newWords = words.clone();
+
+        int start = 0;
+        for (int i = 0; i <= count; i++) {
+            final int end = (i < count) ? points[i] : length;
+            if (end < start || end > length) {
+                throw new IllegalArgumentException("invalid combination point (" + end + ")");
+            }
+
+            if ((i & 1) == 0) {
+                copyRange(other.words, newWords, start, end);
+            }
+            start = end;
+        }
+
+        return newWords;
     }
 
     /**
@@ -122,32 +397,53 @@ public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
      * @return Integer representation of part of this chromosome
      */
     public BigInteger toPartialBigInteger (final int first, final int num) {
-        BitSet fbits = bits;
-        if (num < length || first != 0) {
-            fbits = new BitSet();
-            for (int i = 0; i < num; i++) {
-                fbits.set(i, bits.get(i + first));
-            }
+        if (first < 0 || num < 0 || first + num > length) {
+            throw new IndexOutOfBoundsException("bits " + first + " to " + (first + num) + " of " + length);
         }
 
-        if (fbits.cardinality() == 0) {
-            return BigInteger.ZERO;
+        // Big-endian magnitude, 8 bits at a time from the end
+        final byte[] magnitude = new byte[(num + 7) / 8];
+        for (int i = 0; i < magnitude.length; i++) {
+            final int from = first + 8 * i;
+            final int bits = Math.min(8, first + num - from);
+            magnitude[magnitude.length - 1 - i] = (byte) getBits(from, bits);
         }
 
-        final byte[] bitsBytes = fbits.toByteArray();
-        final byte[] bigintBytes = new byte[bitsBytes.length + 1];
-        for (int i = 0; i < bitsBytes.length; i++) {
-            bigintBytes[bigintBytes.length - 1 - i] = bitsBytes[i];
+        return new BigInteger(1, magnitude);
+    }
+
+    /**
+     * Returns part of this chromosome as an unsigned integer, without allocating anything.
+     * 
+     * @param first First bit to use, which becomes the lowest bit of the result
+     * @param num Number of bits to use, up to <tt>64</tt>
+     * @return The bits <tt>first</tt> to <tt>first + num - 1</tt> of this chromosome, as the lowest bits of a number
+     */
+    public long getBits (final int first, final int num) {
+        if (first < 0 || num < 0 || num > 64 || first + num > length) {
+            throw new IndexOutOfBoundsException("bits " + first + " to " + (first + num) + " of " + length);
+        }
+        if (num == 0) {
+            return 0L;
         }
 
-        final BigInteger bi = new BigInteger(bigintBytes);
+        final int word = first >>> 6;
+        final int shift = first & 63;
+        long bits = words[word] >>> shift;
+        if (shift + num > 64) {
+            bits |= words[word + 1] << (64 - shift);
+        }
+        return (num == 64) ? bits : bits & ((1L << num) - 1);
+    }
 
-        return bi;
+    @Override
+    public long fingerprint () {
+        return fingerprint;
     }
 
     @Override
     public int hashCode () {
-        return bits.hashCode() * 17 + length;
+        return Fingerprint.hash(fingerprint);
     }
 
     @Override
@@ -161,14 +457,14 @@ public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
 
         final BinaryChromosome bc = (BinaryChromosome) obj;
 
-        return length == bc.length && bits.equals(bc.bits);
+        return length == bc.length && fingerprint == bc.fingerprint && Arrays.equals(words, bc.words);
     }
 
     @Override
     public String toString () {
         final StringBuilder sb = new StringBuilder(length + 2).append("(");
         for (int i = length - 1; i >= 0; i--) {
-            sb.append(bits.get(i) ? '1' : '0');
+            sb.append(getBit(i) ? '1' : '0');
         }
         return sb.append(")").toString();
     }
@@ -180,7 +476,107 @@ public final class BinaryChromosome extends Chromosome<BinaryChromosome> {
 
     @Override
     public int getCombinationTypes () {
-        return 1;
+        return 4;
     }
 
+    /** @return <tt>count</tt> different combination places, drawn at random and sorted */
+    private int[] randomPoints (final int count, final Random random) {
+        final int places = getCombinationPlaces();
+        if (count < 1 || count > places) {
+            throw new IllegalArgumentException("invalid number of points (" + count + ")");
+        }
+
+        // Insertion of every new point in order, drawing it again if already present
+        final int[] points = new int[count];
+        int drawn = 0;
+        while (drawn < count) {
+            final int point = random.nextInt(places);
+
+            int pos = drawn;
+            while (pos > 0 && points[pos - 1] > point) {
+                pos--;
+            }
+            if (pos > 0 && points[pos - 1] == point) {
+                continue;
+            }
+
+            System.arraycopy(points, pos, points, pos + 1, drawn - pos);
+            points[pos] = point;
+            drawn++;
+        }
+
+        return points;
+    }
+
+    /** Flips the first <tt>count</tt> <tt>places</tt> of the words of a new chromosome */
+    private void flip (final long[] newWords, final int[] places, final int count) {
+        for (int i = 0; i < count; i++) {
+            if (places[i] < 0 || places[i] >= getMutationPlaces()) {
+                throw new IllegalArgumentException("invalid mutation place (" + places[i] + ")");
+            }
+            newWords[places[i] >>> 6] ^= 1L << places[i];
+        }
+    }
+
+    /** @return Number of 64-bit words needed for <tt>length</tt> bits */
+    private static int words (final int length) {
+        return (length + 63) >>> 6;
+    }
+
+    /** Copies the bits <tt>from</tt> to <tt>to - 1</tt> of <tt>src</tt> into <tt>dst</tt>, a word at a time */
+    private static void copyRange (final long[] src, final long[] dst, final int from, final int to) {
+        if (from >= to) {
+            return;
+        }
+
+        final int first = from >>> 6;
+        final int last = (to - 1) >>> 6;
+        final long firstMask = -1L << from;
+        final long lastMask = -1L >>> (63 - ((to - 1) & 63));
+
+        if (first == last) {
+            final long mask = firstMask & lastMask;
+            dst[first] = (dst[first] & ~mask) | (src[first] & mask);
+            return;
+        }
+
+        dst[first] = (dst[first] & ~firstMask) | (src[first] & firstMask);
+        System.arraycopy(src, first + 1, dst, first + 1, last - first - 1);
+        dst[last] = (dst[last] & ~lastMask) | (src[last] & lastMask);
+    }
+
+    /** Codec for binary chromosomes */
+    private static final class Codec implements ChromosomeCodec<BinaryChromosome> {
+
+        /* package */Codec () {
+        }
+
+        @Override
+        public int size (final BinaryChromosome chromo) {
+            return 4 + 8 * chromo.words.length;
+        }
+
+        @Override
+        public void encode (final BinaryChromosome chromo, final ByteBuffer buffer) {
+            buffer.putInt(chromo.length);
+            for (final long word : chromo.words) {
+                buffer.putLong(word);
+            }
+        }
+
+        @Override
+        public BinaryChromosome decode (final ByteBuffer buffer) {
+            final int length = buffer.getInt();
+            if (length < 0) {
+                throw new IllegalArgumentException("invalid length (" + length + ")");
+            }
+
+            final long[] words = new long[words(length)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = buffer.getLong();
+            }
+
+            return new BinaryChromosome(length, words);
+        }
+    }
 }
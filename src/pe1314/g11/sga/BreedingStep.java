@@ -0,0 +1,430 @@
+package pe1314.g11.sga;
+
+import java.util.Random;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+import pe1314.g11.SolverStep;
+import pe1314.g11.util.AliasTable;
+import pe1314.g11.util.FitnessSort;
+import pe1314.g11.util.MutationPlaces;
+
+/**
+ * A step that breeds a whole new population at once, fusing selection, crossover and mutation.
+ * <p>
+ * Every pair of children is bred in one pass: two parents are drawn by the {@link Selection} policy, combined by the
+ * {@link Crossover} policy, and every child is mutated by the {@link Mutation} policy before being added to the
+ * output. Unlike a chain of a selection step, a {@link CombinationStep} and a {@link MultiMutationStep}, no
+ * intermediate populations are built, parents are never copied, and all the mutations of a child are applied to a
+ * single new chromosome with {@link Chromosome#getMutated(int, int[], int)}. Children that end up equal to their
+ * parent keep its known fitness.
+ * <p>
+ * When the policies are the standard {@link #combination(double, int, int) combination} and
+ * {@link #pointMutation(double, int) point mutation}, every pair of crossed children is combined and mutated at once
+ * with {@link Chromosome#combine(Chromosome, int, int, Random, MutationPlaces, int, Chromosome[])}, so chromosomes
+ * that override it build every child once, instead of once combined and once more mutated.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
+public final class BreedingStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
+
+    private final Selection selection;
+    private final Crossover<C> crossover;
+    private final Mutation<C> mutation;
+
+    /** The standard mutation policy, if it is, to draw the mutations of every child with the same places */
+    private final PointMutation<C> pointMutation;
+
+    /** The standard crossover policy, if both policies are, to combine and mutate crossed children at once */
+    private final Combination<C> combination;
+
+    /**
+     * @param selection Policy used to draw the parents
+     * @param crossover Policy used to combine every pair of parents
+     * @param mutation Policy used to mutate every child
+     */
+    public BreedingStep (final Selection selection, final Crossover<C> crossover, final Mutation<C> mutation) {
+        if (selection == null) {
+            throw new NullPointerException("selection");
+        }
+        if (crossover == null) {
+            throw new NullPointerException("crossover");
+        }
+        if (mutation == null) {
+            throw new NullPointerException("mutation");
+        }
+
+        this.selection = selection;
+        this.crossover = crossover;
+        this.mutation = mutation;
+
+        this.pointMutation = (mutation instanceof PointMutation) ? (PointMutation<C>) mutation : null;
+        this.combination =
+            (crossover instanceof Combination && pointMutation != null) ? (Combination<C>) crossover : null;
+    }
+
+    @Override
+    public
+        void apply (
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
+    {
+        final int len = input.size();
+        if (len == 0) {
+            return;
+        }
+
+        final Sampler sampler = selection.prepare(problem.type(), input);
+
+        @SuppressWarnings("unchecked")
+        final C[] children = (C[]) new Chromosome<?>[2];
+
+        // A single sampler draws the mutations of every child of this call
+        final MutationPlaces places = (pointMutation == null) ? null : new MutationPlaces(pointMutation.probability);
+
+        for (int i = 0; i < len; i += 2) {
+            final int first = sampler.sample(random);
+            final int second = sampler.sample(random);
+
+            // Crossed children of the standard policies are already mutated, except a last single child, bred apart
+            // so the mutations of its discarded sibling are never drawn
+            final boolean fused = combination != null && i + 1 < len;
+            final boolean crossed;
+            if (fused) {
+                crossed = combination.cross(
+                    input.get(first), input.get(second), random, places, pointMutation.type, children);
+            } else {
+                crossed = crossover.cross(input.get(first), input.get(second), random, children);
+            }
+
+            if (fused && crossed) {
+                output.add(children[0]);
+                output.add(children[1]);
+                continue;
+            }
+
+            publish(input, first, crossed ? children[0] : null, random, places, output);
+            if (i + 1 < len) {
+                publish(input, second, crossed ? children[1] : null, random, places, output);
+            }
+        }
+    }
+
+    /**
+     * Mutates a child, or its parent if it was not crossed, and adds it to the output. The standard mutation policy
+     * draws on <tt>places</tt>, which is <tt>null</tt> for any other policy.
+     */
+    private void publish (
+        final Population<C> input, final int parent, final C child, final Random random, final MutationPlaces places,
+        final Population<C> output)
+    {
+        final C chromo = (child == null) ? input.get(parent) : child;
+        final C mutated =
+            (places == null) ? mutation.mutate(chromo, random) : pointMutation.mutate(chromo, random, places);
+
+        if (mutated == input.get(parent)) {
+            output.addFrom(input, parent);
+        } else {
+            output.add(mutated);
+        }
+    }
+
+    // ================
+    // === POLICIES ===
+
+    /**
+     * A policy that draws parents from a population.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    public interface Selection {
+
+        /**
+         * Prepares the drawing of parents from a population, once per generation.
+         * 
+         * @param type Type of the problem being solved
+         * @param population Population the parents are drawn from
+         * @return A sampler of positions of <tt>population</tt>
+         */
+        public abstract Sampler prepare (Problem.Type type, Population<?> population);
+    }
+
+    /**
+     * Draws positions of a population prepared by a {@link Selection}.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    public interface Sampler {
+
+        /**
+         * @param random The random generator to use
+         * @return The position of the next parent
+         */
+        public abstract int sample (Random random);
+    }
+
+    /**
+     * A policy that combines two parents into two children.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <C> Type of the chromosomes
+     */
+    public interface Crossover<C extends Chromosome<C>> {
+
+        /**
+         * Combines two parents, storing their children on the first two positions of <tt>children</tt>.
+         * 
+         * @param first First parent
+         * @param second Second parent
+         * @param random The random generator to use
+         * @param children Array where the children are stored
+         * @return Whether the parents were combined, or must be passed through instead of the children
+         */
+        public abstract boolean cross (C first, C second, Random random, C[] children);
+    }
+
+    /**
+     * A policy that mutates children.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <C> Type of the chromosomes
+     */
+    public interface Mutation<C extends Chromosome<C>> {
+
+        /**
+         * @param chromo Chromosome to mutate
+         * @param random The random generator to use
+         * @return The mutated chromosome, or <tt>chromo</tt> itself if it was not mutated
+         */
+        public abstract C mutate (C chromo, Random random);
+    }
+
+    // =========================
+    // === STANDARD POLICIES ===
+
+    /**
+     * Returns a selection policy that draws every parent as the winner of a tournament.
+     * 
+     * @param size Size of the tournaments
+     * @return A tournament selection policy
+     * @see TournamentSelectionStep
+     */
+    public static Selection tournament (final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("invalid tournament size: " + size);
+        }
+
+        return new Selection() {
+            @Override
+            public Sampler prepare (final Problem.Type type, final Population<?> population) {
+                final double[] fitness = new double[population.size()];
+                for (int i = 0; i < fitness.length; i++) {
+                    fitness[i] = population.fitness(i);
+                }
+
+                return new Sampler() {
+                    @Override
+                    public int sample (final Random random) {
+                        int best = random.nextInt(fitness.length);
+                        for (int j = 1; j < size; j++) {
+                            final int contender = random.nextInt(fitness.length);
+                            if (type.compare(fitness[contender], fitness[best]) < 0) {
+                                best = contender;
+                            }
+                        }
+                        return best;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns a selection policy that draws every parent from the roulette.
+     * 
+     * @return A roulette selection policy
+     * @see RouletteSelectionStep
+     */
+    public static Selection roulette () {
+        return new Selection() {
+            @Override
+            public Sampler prepare (final Problem.Type type, final Population<?> population) {
+                final double[] weights = RouletteSelectionStep.weights(type, population);
+                return (weights == null) ? uniform(population.size()) : alias(null, new AliasTable(weights));
+            }
+        };
+    }
+
+    /**
+     * Returns a selection policy that draws every parent by its rank.
+     * 
+     * @param beta Selective pressure, between <tt>1</tt> and <tt>2</tt>
+     * @return A ranking selection policy
+     * @see RankingSelectionStep
+     */
+    public static Selection ranking (final double beta) {
+        if (!(beta >= 1.0 && beta <= 2.0)) {
+            throw new IllegalArgumentException("invalid beta: " + beta);
+        }
+
+        return new Selection() {
+            @Override
+            public Sampler prepare (final Problem.Type type, final Population<?> population) {
+                final int[] order = FitnessSort.order(population);
+                return alias(order, new AliasTable(RankingSelectionStep.weights(beta, order.length)));
+            }
+        };
+    }
+
+    /**
+     * Returns a crossover policy that combines every pair of parents with a probability, as a {@link CombinationStep}.
+     * 
+     * @param probability Probability of combining every pair of parents
+     * @param type Combination type to use
+     * @return A crossover policy
+     */
+    public static <C extends Chromosome<C>> Crossover<C> combination (final double probability, final int type) {
+        return combination(probability, type, CombinationStep.DEFAULT_POINTS);
+    }
+
+    /**
+     * Returns a crossover policy that combines every pair of parents with a probability, as a {@link CombinationStep}.
+     * 
+     * @param probability Probability of combining every pair of parents
+     * @param type Combination type to use
+     * @param points Number of combination points, for the combination types that use any number of them
+     * @return A crossover policy
+     */
+    public static <C extends Chromosome<C>> Crossover<C> combination (
+        final double probability, final int type, final int points)
+    {
+        return new Combination<>(probability, type, points);
+    }
+
+    /**
+     * Returns a mutation policy that mutates every place of a child with a probability, as a {@link MultiMutationStep},
+     * but creating a single new chromosome and drawing only the mutated places, as a {@link GeometricMutationStep}.
+     * 
+     * @param probability Probability of mutating every place
+     * @param type Mutation type to use
+     * @return A mutation policy
+     */
+    public static <C extends Chromosome<C>> Mutation<C> pointMutation (final double probability, final int type) {
+        return new PointMutation<>(probability, type);
+    }
+
+    /** @return A sampler of the positions of <tt>order</tt> (or the identity) with the probabilities of a table */
+    /* package */static Sampler alias (final int[] order, final AliasTable table) {
+        return new Sampler() {
+            @Override
+            public int sample (final Random random) {
+                final int index = table.sample(random);
+                return (order == null) ? index : order[index];
+            }
+        };
+    }
+
+    /** @return A sampler of every position with the same probability */
+    /* package */static Sampler uniform (final int len) {
+        return new Sampler() {
+            @Override
+            public int sample (final Random random) {
+                return random.nextInt(len);
+            }
+        };
+    }
+
+    private static void checkProbability (final double probability) {
+        if (probability < 0.0 || probability > 1.0 || Double.isInfinite(probability) || Double.isNaN(probability)) {
+            throw new IllegalArgumentException("invalid probability: " + probability);
+        }
+    }
+
+    /**
+     * The standard crossover policy, returned by {@link BreedingStep#combination(double, int, int)}.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <C> Type of the chromosomes
+     */
+    private static final class Combination<C extends Chromosome<C>> implements Crossover<C> {
+
+        /* package */final double probability;
+        /* package */final int type;
+        /* package */final int points;
+
+        /* package */Combination (final double probability, final int type, final int points) {
+            checkProbability(probability);
+            if (points < 1) {
+                throw new IllegalArgumentException("invalid number of points: " + points);
+            }
+
+            this.probability = probability;
+            this.type = type;
+            this.points = points;
+        }
+
+        @Override
+        public boolean cross (final C first, final C second, final Random random, final C[] children) {
+            if (!(random.nextDouble() < probability)) {
+                return false;
+            }
+
+            first.combine(second, type, points, random, children);
+            return true;
+        }
+
+        /** Crosses as {@link #cross cross}, mutating the children on the places drawn by <tt>mutation</tt> */
+        /* package */boolean cross (
+            final C first, final C second, final Random random, final MutationPlaces mutation, final int mutationType,
+            final C[] children)
+        {
+            if (!(random.nextDouble() < probability)) {
+                return false;
+            }
+
+            first.combine(second, type, points, random, mutation, mutationType, children);
+            return true;
+        }
+    }
+
+    /**
+     * The standard mutation policy, returned by {@link BreedingStep#pointMutation(double, int)}.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     * @param <C> Type of the chromosomes
+     */
+    private static final class PointMutation<C extends Chromosome<C>> implements Mutation<C> {
+
+        /* package */final double probability;
+        /* package */final int type;
+
+        /* package */PointMutation (final double probability, final int type) {
+            checkProbability(probability);
+
+            this.probability = probability;
+            this.type = type;
+        }
+
+        @Override
+        public C mutate (final C chromo, final Random random) {
+            // Policies may be shared between steps, so every call draws with its own places
+            return mutate(chromo, random, new MutationPlaces(probability));
+        }
+
+        /** Mutates as {@link #mutate(Chromosome, Random) mutate}, drawing the places with <tt>places</tt> */
+        /* package */C mutate (final C chromo, final Random random, final MutationPlaces places) {
+            final int count = places.draw(chromo.getMutationPlaces(), random);
+            return chromo.getMutated(type, places.getPlaces(), count);
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package pe1314.g11.sga;
 
-import java.util.Iterator;
-import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
 
 /**
- * A problem solver step that combines binary chromosomes with a given probability on a random combination point.
+ * A problem solver step that combines pairs of chromosomes with a given probability, using
+ * {@link Chromosome#combine(Chromosome, int, int, Random, Chromosome[]) combine} to choose the random combination
+ * points.
  * 
  * @author Daniel Escoz Solana
  * @author Pedro Morgado Alarc&oacute;n
@@ -17,49 +18,65 @@ import pe1314.g11.SolverStep;
  */
 public final class CombinationStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
 
+    /** Number of combination points used when not given */
+    public static final int DEFAULT_POINTS = 2;
+
     private final double probability;
 
     private final int type;
 
+    private final int points;
+
     public CombinationStep (final double probability, final int type) {
+        this(probability, type, DEFAULT_POINTS);
+    }
+
+    /**
+     * @param probability Probability of combining every pair of chromosomes
+     * @param type Combination type to use
+     * @param points Number of combination points, for the combination types that use any number of them
+     */
+    public CombinationStep (final double probability, final int type, final int points) {
         if (probability < 0.0 || probability > 1.0 || Double.isInfinite(probability) || Double.isNaN(probability)) {
             throw new IllegalArgumentException("invalid probability: " + probability);
         }
+        if (points < 1) {
+            throw new IllegalArgumentException("invalid number of points: " + points);
+        }
 
         this.probability = probability;
         this.type = type;
+        this.points = points;
     }
 
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
-        final Iterator<C> it = input.iterator();
-        while (it.hasNext()) {
-            final C a = it.next();
+        @SuppressWarnings("unchecked")
+        final C[] children = (C[]) new Chromosome<?>[2];
+
+        for (int i = 0; i < input.size(); i += 2) {
+            final C a = input.get(i);
 
-            if (it.hasNext()) {
-                final C b = it.next();
+            if (i + 1 < input.size()) {
+                final C b = input.get(i + 1);
 
                 if (random.nextDouble() < probability) {
-                    final int place = random.nextInt(a.getCombinationPlaces());
-                    int p2 = place;
-                    while (place == p2) {
-                        p2 = random.nextInt(a.getCombinationPlaces());
-                    }
+                    a.combine(b, type, points, random, children);
 
-                    output.add(a.getCombined(b, type, place, p2 - place));
-                    output.add(b.getCombined(a, type, place, p2 - place));
+                    output.add(children[0]);
+                    output.add(children[1]);
 
                 } else {
-                    output.add(a);
-                    output.add(b);
+                    output.addFrom(input, i);
+                    output.addFrom(input, i + 1);
                 }
 
             } else {
-                output.add(a);
+                output.addFrom(input, i);
             }
         }
     }
@@ -1,37 +1,63 @@
 package pe1314.g11.sga;
 
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
-
-public final class DuplicateRemovalStep<V, C extends Chromosome<C> & Comparable<C>> implements SolverStep<V,C> {
+import pe1314.g11.util.Fingerprint;
+
+/**
+ * A step that removes the repeated chromosomes of the population, keeping the first occurrence of every one.
+ * <p>
+ * Chromosomes are looked up by their {@link Chromosome#fingerprint() fingerprint} in an open-addressing hash table, so
+ * the step runs in linear time and full equality is only checked when two fingerprints match. The order of the
+ * population is preserved.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
+public final class DuplicateRemovalStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
 
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
-        output.addAll(input);
-
-        /* Put together chromosomes with the same hashCode */
-        Collections.sort(output);
-
-        /* After sorting, linearly remove duplicates */
-        C last = null;
-        for (final Iterator<C> it = output.iterator(); it.hasNext();) {
-            final C curr = it.next();
-
-            if (curr.equals(last)) {
-                it.remove();
+        final int len = input.size();
+
+        // Power of two with a load factor of at most a half
+        final int capacity = Integer.highestOneBit(Math.max(1, len) * 2 - 1) << 1;
+        final int mask = capacity - 1;
+        final long[] keys = new long[capacity];
+        final int[] members = new int[capacity];
+        Arrays.fill(members, -1);
+
+        for (int i = 0; i < len; i++) {
+            final C chromo = input.get(i);
+            final long fp = chromo.fingerprint();
+
+            // Linear probing, until an empty slot or an equal chromosome is found
+            int slot = Fingerprint.hash(fp) & mask;
+            boolean repeated = false;
+            while (members[slot] >= 0) {
+                if (keys[slot] == fp && chromo.equals(input.get(members[slot]))) {
+                    repeated = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
             }
 
-            last = curr;
+            if (!repeated) {
+                keys[slot] = fp;
+                members[slot] = i;
+                output.addFrom(input, i);
+            }
         }
     }
 }
@@ -0,0 +1,161 @@
+package pe1314.g11.sga;
+
+import java.util.Random;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+import pe1314.g11.SolverStep;
+import pe1314.g11.StatefulStep;
+
+/**
+ * A pair of steps that implement the survivor selection of evolution strategies, either <tt>(mu+lambda)</tt> or
+ * <tt>(mu,lambda)</tt>.
+ * <p>
+ * The parent step remembers its input as the parents of the generation, and outputs <tt>lambda</tt> chromosomes drawn
+ * uniformly from them, which the steps between both turn into offspring. The survivor step then keeps the best
+ * <tt>mu</tt> chromosomes out of the parents and the offspring (plus selection) or out of the offspring only (comma
+ * selection), using a {@link TruncationSelectionStep}. Parents keep their known fitness, so only the offspring are
+ * evaluated. The survivor step evaluates the offspring on the solver thread if their fitness is not known yet, so a
+ * {@link pe1314.g11.util.ParallelEvaluationStep ParallelEvaluationStep} should be placed right before it to evaluate
+ * all the <tt>lambda</tt> offspring at once on every core, which makes small <tt>mu</tt> and large <tt>lambda</tt> a
+ * good fit for parallel evaluation.
+ * <p>
+ * The first generation takes the whole initial population as parents, so it is reduced to <tt>mu</tt> chromosomes by
+ * the first survivor step.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
+public final class EvolutionStrategyStepPair<V, C extends Chromosome<C>> {
+
+    /** Number of offspring of every generation */
+    private final int lambda;
+
+    /** Whether parents compete with their offspring to survive */
+    private final boolean plus;
+
+    /** Selection of the survivors */
+    private final TruncationSelectionStep<V,C> truncation;
+
+    /** The parents saved by the parent step */
+    /* protected */Population<C> parents;
+
+    /**
+     * @param mu Number of parents, that survive every generation
+     * @param lambda Number of offspring of every generation
+     * @param plus Whether to use <tt>(mu+lambda)</tt> selection instead of <tt>(mu,lambda)</tt>
+     */
+    public EvolutionStrategyStepPair (final int mu, final int lambda, final boolean plus) {
+        if (lambda < 1) {
+            throw new IllegalArgumentException("invalid lambda: " + lambda);
+        }
+        if (!plus && lambda < mu) {
+            throw new IllegalArgumentException("lambda must not be less than mu: " + lambda + " < " + mu);
+        }
+
+        this.lambda = lambda;
+        this.plus = plus;
+        this.truncation = new TruncationSelectionStep<>(mu);
+    }
+
+    /** @return Number of parents, that survive every generation */
+    public int getMu () {
+        return truncation.getMu();
+    }
+
+    /** @return Number of offspring of every generation */
+    public int getLambda () {
+        return lambda;
+    }
+
+    /** @return Whether parents compete with their offspring to survive */
+    public boolean isPlus () {
+        return plus;
+    }
+
+    /**
+     * Returns a {@link SolverStep} that saves the parents and outputs <tt>lambda</tt> chromosomes drawn uniformly from
+     * them. The saved parents are the state of this step on solver checkpoints.
+     * 
+     * @return The parent step of the evolution strategy
+     */
+    public SolverStep<V,C> getParentStep () {
+        return new ParentStep();
+    }
+
+    /**
+     * Returns a {@link SolverStep} that outputs the best <tt>mu</tt> chromosomes of the offspring, and of the saved
+     * parents when using plus selection.
+     * 
+     * @return The survivor step of the evolution strategy
+     */
+    public SolverStep<V,C> getSurvivorStep () {
+        return new SurvivorStep();
+    }
+
+    private class ParentStep implements StatefulStep<V,C> {
+
+        /* package */ParentStep () {
+        }
+
+        @Override
+        public void apply (
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
+        {
+            // Parents are evaluated here, so the evaluations are counted on the populations of the solver
+            if (plus) {
+                input.evaluate();
+            }
+            parents = new Population<C>(input);
+
+            final int len = parents.size();
+            if (len == 0) {
+                return;
+            }
+
+            for (int i = 0; i < lambda; i++) {
+                output.addFrom(parents, random.nextInt(len));
+            }
+        }
+
+        @Override
+        public Population<C> getState () {
+            return parents;
+        }
+
+        @Override
+        public void setState (final Population<C> state) {
+            parents = state;
+        }
+
+    }
+
+    private class SurvivorStep implements SolverStep<V,C> {
+
+        /* package */SurvivorStep () {
+        }
+
+        @Override
+        public void apply (
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
+        {
+            if (!plus || parents == null) {
+                truncation.apply(problem, input, random, generation, output);
+                return;
+            }
+
+            input.evaluate();
+            final Population<C> pool = new Population<C>(problem, parents.size() + input.size());
+            pool.addAll(parents);
+            pool.addAll(input);
+
+            truncation.apply(problem, pool, random, generation, output);
+        }
+
+    }
+}
@@ -0,0 +1,59 @@
+package pe1314.g11.sga;
+
+import java.util.Random;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+import pe1314.g11.SolverStep;
+import pe1314.g11.util.MutationPlaces;
+
+/**
+ * A problem solver step that mutates every place of the chromosomes with a given probability, like a
+ * {@link MultiMutationStep}, but only drawing random numbers for the places actually mutated.
+ * <p>
+ * The places are drawn with a {@link MutationPlaces}, which samples the number of places skipped before the next
+ * mutation from a geometric distribution, as <tt>floor(log(u) / log(1 - p))</tt>. All the mutations of a chromosome
+ * are then applied to a single new chromosome with {@link Chromosome#getMutated(int, int[], int)}, so the cost of the
+ * step is proportional to the number of mutations instead of the length of the chromosomes.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
+public final class GeometricMutationStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
+
+    private final double probability;
+
+    private final int type;
+
+    public GeometricMutationStep (final double probability, final int type) {
+        if (probability < 0.0 || probability > 1.0 || Double.isInfinite(probability) || Double.isNaN(probability)) {
+            throw new IllegalArgumentException("invalid probability: " + probability);
+        }
+
+        this.probability = probability;
+        this.type = type;
+    }
+
+    @Override
+    public
+        void apply (
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
+    {
+        final MutationPlaces places = new MutationPlaces(probability);
+
+        for (int n = 0; n < input.size(); n++) {
+            final C chromo = input.get(n);
+            final int count = places.draw(chromo.getMutationPlaces(), random);
+
+            if (count == 0) {
+                output.addFrom(input, n);
+            } else {
+                output.add(chromo.getMutated(type, places.getPlaces(), count));
+            }
+        }
+    }
+}
@@ -1,13 +1,11 @@
 package pe1314.g11.sga;
 
-import java.util.Comparator;
-import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
-import pe1314.g11.util.FitnessComparator;
 
 public class InversionStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
 
@@ -24,13 +22,13 @@ public class InversionStep<V, C extends Chromosome<C>> implements SolverStep<V,C
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
-        final Comparator<C> comp = new FitnessComparator<>(problem);
-
         // For every input chromosome...
-        for (C chromo : input) {
+        for (int n = 0; n < input.size(); n++) {
+            final C chromo = input.get(n);
+
             if (random.nextDouble() < probability) {
                 final int p1 = random.nextInt(chromo.getMutationPlaces());
 
@@ -40,13 +38,15 @@ public class InversionStep<V, C extends Chromosome<C>> implements SolverStep<V,C
                 }
 
                 final C newChromo = chromo.getMutated(PermutationChromosome.MUTATION_INVERSION, p1, p2 - p1);
+                final double newFitness = output.evaluate(newChromo);
 
-                if (comp.compare(newChromo, chromo) < 0) {
-                    chromo = newChromo;
+                if (problem.type().compare(newFitness, input.fitness(n)) < 0) {
+                    output.add(newChromo, newFitness);
+                    continue;
                 }
             }
 
-            output.add(chromo);
+            output.addFrom(input, n);
         }
 
     }
@@ -1,9 +1,9 @@
 package pe1314.g11.sga;
 
-import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
 
@@ -25,11 +25,13 @@ public class LengthedMutationStep<V, C extends Chromosome<C>> implements SolverS
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
         // For every input chromosome...
-        for (C chromo : input) {
+        for (int n = 0; n < input.size(); n++) {
+            C chromo = input.get(n);
+
             if (random.nextDouble() < probability) {
                 final int p1 = random.nextInt(chromo.getMutationPlaces());
 
@@ -41,7 +43,11 @@ public class LengthedMutationStep<V, C extends Chromosome<C>> implements SolverS
                 chromo = chromo.getMutated(type, p1, p2 - p1);
             }
 
-            output.add(chromo);
+            if (chromo == input.get(n)) {
+                output.addFrom(input, n);
+            } else {
+                output.add(chromo);
+            }
         }
     }
 
@@ -1,9 +1,9 @@
 package pe1314.g11.sga;
 
-import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
 
@@ -32,11 +32,13 @@ public final class MultiMutationStep<V, C extends Chromosome<C>> implements Solv
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
         // For every input chromosome...
-        for (C chromo : input) {
+        for (int n = 0; n < input.size(); n++) {
+            C chromo = input.get(n);
+
             // For every mutable place...
             for (int i = 0; i < chromo.getMutationPlaces(); i++) {
                 // Should we mutate this place?
@@ -45,7 +47,11 @@ public final class MultiMutationStep<V, C extends Chromosome<C>> implements Solv
                 }
             }
 
-            output.add(chromo);
+            if (chromo == input.get(n)) {
+                output.addFrom(input, n);
+            } else {
+                output.add(chromo);
+            }
         }
     }
 
@@ -1,5 +1,6 @@
 package pe1314.g11.sga;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -10,6 +11,8 @@ import java.util.Random;
 import java.util.Set;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.ChromosomeCodec;
+import pe1314.g11.util.Fingerprint;
 import pe1314.g11.util.PermutationUtils;
 import pe1314.g11.util.XorShiftRandom;
 
@@ -27,19 +30,28 @@ public final class PermutationChromosome extends Chromosome<PermutationChromosom
     public static final int COMBINATION_ORDCOD = 3;
     public static final int COMBINATION_RECOMB = 4;
 
+    /** Codec that stores the length followed by every element, using as few bytes per element as the length allows */
+    public static final ChromosomeCodec<PermutationChromosome> CODEC = new Codec();
+
     private final List<Integer> permutation;
 
+    /** Fingerprint of the elements of the permutation, in order */
+    private final long fingerprint;
+
     public PermutationChromosome (final List<Integer> permutation) {
         this.permutation = Collections.unmodifiableList(new ArrayList<>(permutation));
 
         final BitSet seen = new BitSet();
+        long fp = Fingerprint.add(Fingerprint.SEED, permutation.size());
         for (final Integer i : permutation) {
             if (i.intValue() < 0 || i.intValue() >= permutation.size() || seen.get(i.intValue())) {
                 throw new IllegalArgumentException("not a permutation: " + permutation);
             }
 
             seen.set(i.intValue());
+            fp = Fingerprint.add(fp, i.intValue());
         }
+        this.fingerprint = fp;
     }
 
     public static PermutationChromosome newRandom (final int length, final Random random) {
@@ -356,6 +368,11 @@ public final class PermutationChromosome extends Chromosome<PermutationChromosom
         return this;
     }
 
+    @Override
+    public long fingerprint () {
+        return fingerprint;
+    }
+
     @Override
     public int hashCode () {
         return permutation.hashCode();
@@ -402,4 +419,72 @@ public final class PermutationChromosome extends Chromosome<PermutationChromosom
         return permutation.size() - other.permutation.size();
     }
 
+    /** Codec for permutation chromosomes */
+    private static final class Codec implements ChromosomeCodec<PermutationChromosome> {
+
+        /* package */Codec () {
+        }
+
+        @Override
+        public int size (final PermutationChromosome chromo) {
+            final int length = chromo.permutation.size();
+            return 4 + length * width(length);
+        }
+
+        @Override
+        public void encode (final PermutationChromosome chromo, final ByteBuffer buffer) {
+            final int length = chromo.permutation.size();
+            final int width = width(length);
+
+            buffer.putInt(length);
+            for (final Integer i : chromo.permutation) {
+                switch (width) {
+                    case 1:
+                        buffer.put((byte) i.intValue());
+                        break;
+                    case 2:
+                        buffer.putShort((short) i.intValue());
+                        break;
+                    default:
+                        buffer.putInt(i.intValue());
+                }
+            }
+        }
+
+        @Override
+        public PermutationChromosome decode (final ByteBuffer buffer) {
+            final int length = buffer.getInt();
+            if (length < 0) {
+                throw new IllegalArgumentException("invalid length (" + length + ")");
+            }
+
+            final int width = width(length);
+            final List<Integer> perm = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                switch (width) {
+                    case 1:
+                        perm.add(Integer.valueOf(buffer.get() & 0xFF));
+                        break;
+                    case 2:
+                        perm.add(Integer.valueOf(buffer.getShort() & 0xFFFF));
+                        break;
+                    default:
+                        perm.add(Integer.valueOf(buffer.getInt()));
+                }
+            }
+
+            return new PermutationChromosome(perm);
+        }
+
+        /** @return Number of bytes used by every element of a permutation of <tt>length</tt> elements */
+        private static int width (final int length) {
+            if (length <= 0x100) {
+                return 1;
+            }
+            if (length <= 0x10000) {
+                return 2;
+            }
+            return 4;
+        }
+    }
 }
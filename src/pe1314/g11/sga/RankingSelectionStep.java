@@ -1,17 +1,22 @@
 package pe1314.g11.sga;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
-import pe1314.g11.util.FitnessComparator;
+import pe1314.g11.util.AliasTable;
+import pe1314.g11.util.FitnessSort;
 
 /**
  * A step that implements the selection of chromosomes using the ranking mechanism.
+ * <p>
+ * Chromosomes are ranked from best to worst with a {@link FitnessSort}, without copying the population, and the one
+ * at rank <tt>i</tt> of <tt>n</tt> is selected with probability <tt>(beta - 2 (beta - 1) i / n) / n</tt>, so
+ * <tt>beta</tt> is the expected number of copies of the best chromosome. Since these probabilities only depend on
+ * <tt>n</tt> and <tt>beta</tt>, the {@link AliasTable} they are drawn from is built once and reused while the
+ * population size does not change, and selecting the whole population takes <tt>O(n)</tt> besides the sort.
  * 
  * @author Daniel Escoz Solana
  * @author Pedro Morgado Alarc&oacute;n
@@ -20,49 +25,73 @@ import pe1314.g11.util.FitnessComparator;
  */
 public class RankingSelectionStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
 
-    private final double beta = 2.0;
+    /** Default selective pressure */
+    public static final double DEFAULT_BETA = 2.0;
+
+    /** Selective pressure, between <tt>1</tt> (none) and <tt>2</tt> */
+    private final double beta;
+
+    /** Table of the rank probabilities for the last population size */
+    private volatile AliasTable table = null;
+
+    /** Creates a ranking selection step with a selective pressure of {@link #DEFAULT_BETA} */
+    public RankingSelectionStep () {
+        this(DEFAULT_BETA);
+    }
+
+    /**
+     * @param beta Selective pressure, between <tt>1</tt> (every chromosome is equally likely) and <tt>2</tt> (the
+     *            worst chromosome is never selected)
+     */
+    public RankingSelectionStep (final double beta) {
+        if (!(beta >= 1.0 && beta <= 2.0)) {
+            throw new IllegalArgumentException("invalid beta: " + beta);
+        }
+
+        this.beta = beta;
+    }
 
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
-        final List<C> sorted = new ArrayList<>(input);
-        Collections.sort(sorted, new FitnessComparator<>(problem));
-
-        // An array of accumulated fitness
-        final double[] accs = new double[input.size()];
-
-        // Obtain the sum of the fitnesses and the accumulated
-        double acc = 0;
-        for (int i = 0; i < input.size(); i++) {
-            double prob = (double) i / input.size();
-            prob = prob * 2.0 * (beta - 1);
-            prob = beta - prob;
-            prob = prob * (1.0 / input.size());
-
-            acc += prob;
-            accs[i] = acc;
+        final int len = input.size();
+        if (len == 0) {
+            return;
         }
 
-        // Make the selection
-        for (int i = 0; i < input.size(); i++) {
-            final double rnd = random.nextDouble() * acc;
+        final int[] order = FitnessSort.order(input);
 
-            C selected = null;
-            for (int j = 0; j < accs.length && selected == null; j++) {
-                if (rnd < accs[j]) {
-                    selected = input.get(j);
-                }
-            }
+        // Make the selection
+        final AliasTable ranks = table(len);
+        for (int i = 0; i < len; i++) {
+            output.addFrom(input, order[ranks.sample(random)]);
+        }
+    }
 
-            if (selected == null) {
-                // Double imprecision, none was selected
-                selected = input.get(random.nextInt(input.size()));
-            }
+    /** @return The table of the rank probabilities for a population size, reusing the last one if possible */
+    private AliasTable table (final int len) {
+        AliasTable ranks = table;
+        if (ranks == null || ranks.size() != len) {
+            ranks = new AliasTable(weights(beta, len));
+            table = ranks;
+        }
+        return ranks;
+    }
 
-            output.add(selected);
+    /** @return The selection probability of every rank, best first, for a selective pressure and population size */
+    /* package */static double[] weights (final double beta, final int len) {
+        final double[] weights = new double[len];
+        for (int i = 0; i < len; i++) {
+            weights[i] = (beta - 2.0 * (beta - 1) * i / len) / len;
         }
+        return weights;
+    }
+
+    /** @return The selective pressure of this step */
+    public double getBeta () {
+        return beta;
     }
 }
@@ -1,14 +1,19 @@
 package pe1314.g11.sga;
 
-import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
+import pe1314.g11.util.AliasTable;
 
 /**
  * A step that implements the selection of chromosomes using the roulette mechanism.
+ * <p>
+ * Every chromosome is selected with a probability proportional to its fitness, displaced so the worst one has a weight
+ * of <tt>1</tt>. Picks are drawn from an {@link AliasTable} built once per generation, so selecting the whole
+ * population takes <tt>O(n)</tt>.
  * 
  * @author Daniel Escoz Solana
  * @author Pedro Morgado Alarc&oacute;n
@@ -20,47 +25,60 @@ public final class RouletteSelectionStep<V, C extends Chromosome<C>> implements
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
-        // An array of accumulated fitness
-        final double[] accs = new double[input.size()];
-
-        // Get the minimum of the fitnesses
-        double minFitness = Double.POSITIVE_INFINITY;
-        final double maxFitness = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < input.size(); i++) {
-            minFitness = Math.min(minFitness, problem.fitness(input.get(i)));
+        final int len = input.size();
+        if (len == 0) {
+            return;
         }
 
-        // Obtain the sum of the fitnesses and the accumulated
-        double fitnessSum = 0;
-        for (int i = 0; i < input.size(); i++) {
-            fitnessSum += problem.fitness(input.get(i));
-            accs[i] = fitnessSum - minFitness + 1;
-            if (problem.type() == Problem.Type.MINIMIZATION) {
-                accs[i] = (maxFitness - minFitness + 1) - accs[i];
+        // Degenerate fitness values, select uniformly
+        final double[] weights = weights(problem.type(), input);
+        if (weights == null) {
+            for (int i = 0; i < len; i++) {
+                output.addFrom(input, random.nextInt(len));
             }
+            return;
         }
 
         // Make the selection
-        for (int i = 0; i < input.size(); i++) {
-            final double rnd = random.nextDouble() * fitnessSum;
+        final AliasTable table = new AliasTable(weights);
+        for (int i = 0; i < len; i++) {
+            output.addFrom(input, table.sample(random));
+        }
+    }
 
-            C selected = null;
-            for (int j = 0; j < accs.length && selected == null; j++) {
-                if (rnd < accs[j]) {
-                    selected = input.get(j);
-                }
-            }
+    /**
+     * Computes the selection weights of every member of a population, displacing their fitness so they are all
+     * positive, the best ones are the biggest, and the worst one is <tt>1</tt>.
+     * 
+     * @param type Type of the problem being solved
+     * @param input Population whose weights are computed
+     * @return The weight of every member, or <tt>null</tt> if the range of the fitness values is not finite
+     */
+    /* package */static double[] weights (final Problem.Type type, final Population<?> input) {
+        final int len = input.size();
 
-            if (selected == null) {
-                // Double imprecision, none was selected
-                selected = input.get(random.nextInt(input.size()));
-            }
+        // Get the range of the fitnesses
+        double minFitness = Double.POSITIVE_INFINITY;
+        double maxFitness = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < len; i++) {
+            final double fitness = input.fitness(i);
+            minFitness = Math.min(minFitness, fitness);
+            maxFitness = Math.max(maxFitness, fitness);
+        }
 
-            output.add(selected);
+        if (Double.isNaN(maxFitness - minFitness) || Double.isInfinite(maxFitness - minFitness)) {
+            return null;
         }
-    }
 
+        final boolean minimization = type == Problem.Type.MINIMIZATION;
+        final double[] weights = new double[len];
+        for (int i = 0; i < len; i++) {
+            final double fitness = input.fitness(i);
+            weights[i] = minimization ? (maxFitness - fitness + 1) : (fitness - minFitness + 1);
+        }
+        return weights;
+    }
 }
@@ -0,0 +1,79 @@
+package pe1314.g11.sga;
+
+import java.util.Random;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+import pe1314.g11.SolverStep;
+
+/**
+ * A step that implements the selection of chromosomes using stochastic universal sampling.
+ * <p>
+ * Chromosomes are weighted as in the {@link RouletteSelectionStep roulette}, but instead of spinning the roulette once
+ * per pick, <tt>n</tt> equally spaced pointers are placed on it after a single random offset, and all of them are
+ * resolved in one linear sweep. Every chromosome is then selected either <tt>floor(n p)</tt> or <tt>ceil(n p)</tt>
+ * times, <tt>p</tt> being its selection probability. Since the sweep selects the copies of every chromosome together,
+ * and the {@link CombinationStep} pairs consecutive chromosomes, the selected chromosomes are shuffled afterwards.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
+public final class StochasticUniversalSamplingStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
+
+    @Override
+    public
+        void apply (
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
+    {
+        final int len = input.size();
+        if (len == 0) {
+            return;
+        }
+
+        final int[] selected = new int[len];
+        final double[] weights = RouletteSelectionStep.weights(problem.type(), input);
+
+        if (weights == null) {
+            // Degenerate fitness values, every chromosome is equally likely
+            for (int i = 0; i < len; i++) {
+                selected[i] = i;
+            }
+
+        } else {
+            double sum = 0;
+            for (final double weight : weights) {
+                sum += weight;
+            }
+
+            // Sweep the pointers and the accumulated weights at the same time
+            final double spacing = sum / len;
+            final double offset = random.nextDouble() * spacing;
+
+            int member = 0;
+            double acc = weights[0];
+            for (int i = 0; i < len; i++) {
+                final double pointer = offset + i * spacing;
+                while (acc <= pointer && member < len - 1) {
+                    acc += weights[++member];
+                }
+                selected[i] = member;
+            }
+        }
+
+        // Shuffle the selection, so copies of the same chromosome are not paired together
+        for (int i = len - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int tmp = selected[i];
+            selected[i] = selected[j];
+            selected[j] = tmp;
+        }
+
+        for (final int index : selected) {
+            output.addFrom(input, index);
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package pe1314.g11.sga;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
-import pe1314.g11.util.FitnessComparator;
+import pe1314.g11.util.SharedPool;
+import pe1314.g11.util.SplitMixRandom;
 
 /**
  * A step that implements the selection of chromosomes using the tournament mechanism.
+ * <p>
+ * The fitness of the input is copied to a primitive array once, and every tournament only draws indices and compares
+ * those values. Tournaments are run in chunks of {@value #CHUNK_SIZE} on a fork-join pool, and every chunk uses its
+ * own {@link SplitMixRandom#split(long) stream} derived from a generator split from the solver one, so the selection
+ * only depends on the seed and not on the number of threads or how the chunks are scheduled.
  * 
  * @author Daniel Escoz Solana
  * @author Pedro Morgado Alarc&oacute;n
@@ -21,35 +26,139 @@ import pe1314.g11.util.FitnessComparator;
  */
 public class TournamentSelectionStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
 
+    /** Number of tournaments run by every task */
+    private static final int CHUNK_SIZE = 2048;
+
     /** The size of the tournament */
     private final int tournamentSize;
 
+    /** The pool in which the tournaments are run */
+    private final ForkJoinPool pool;
+
     /**
+     * Creates a tournament selection step that runs on the {@link SharedPool shared pool}.
+     * 
      * @param tournamentSize Size of the tournament
      */
     public TournamentSelectionStep (final int tournamentSize) {
+        this(tournamentSize, SharedPool.get());
+    }
+
+    /**
+     * @param tournamentSize Size of the tournament
+     * @param pool The pool in which the tournaments are run
+     */
+    public TournamentSelectionStep (final int tournamentSize, final ForkJoinPool pool) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("invalid tournament size: " + tournamentSize);
+        }
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+
         this.tournamentSize = tournamentSize;
+        this.pool = pool;
     }
 
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
-        final List<C> tournament = new ArrayList<C>(tournamentSize);
-        final Comparator<C> sorter = new FitnessComparator<C>(problem);
+        final int len = input.size();
+        if (len == 0) {
+            return;
+        }
+
+        final double[] fitness = new double[len];
+        for (int i = 0; i < len; i++) {
+            fitness[i] = input.fitness(i);
+        }
 
-        for (int i = 0; i < input.size(); i++) {
-            tournament.clear();
+        final Tournaments tournaments = new Tournaments(problem.type(), fitness, SplitMixRandom.from(random));
+        final int chunks = (len + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks == 1) {
+            tournaments.runChunk(0);
+        } else {
+            pool.invoke(tournaments.new ChunkTask(0, chunks));
+        }
+
+        for (final int selected : tournaments.selected) {
+            output.addFrom(input, selected);
+        }
+    }
 
-            // Fill in the tournament
-            while (tournament.size() < tournamentSize) {
-                tournament.add(input.get(random.nextInt(input.size())));
+    /**
+     * The tournaments of one application of the step.
+     * 
+     * @author Daniel Escoz Solana
+     * @author Pedro Morgado Alarc&oacute;n
+     */
+    private final class Tournaments {
+
+        private final Problem.Type type;
+        private final double[] fitness;
+        private final SplitMixRandom streams;
+
+        /** Winner of every tournament */
+        /* package */final int[] selected;
+
+        /* package */Tournaments (final Problem.Type type, final double[] fitness, final SplitMixRandom streams) {
+            this.type = type;
+            this.fitness = fitness;
+            this.streams = streams;
+            this.selected = new int[fitness.length];
+        }
+
+        /** Runs the tournaments of a chunk, with the random stream of that chunk */
+        /* package */void runChunk (final int chunk) {
+            final SplitMixRandom random = streams.split(chunk);
+            final int len = fitness.length;
+            final int to = Math.min(len, (chunk + 1) * CHUNK_SIZE);
+
+            for (int i = chunk * CHUNK_SIZE; i < to; i++) {
+                // Fill in the tournament, keeping the best (first)
+                int best = random.nextInt(len);
+                for (int j = 1; j < tournamentSize; j++) {
+                    final int contender = random.nextInt(len);
+                    if (type.compare(fitness[contender], fitness[best]) < 0) {
+                        best = contender;
+                    }
+                }
+
+                selected[i] = best;
+            }
+        }
+
+        /**
+         * A task that runs a range of chunks, splitting it in halves.
+         * 
+         * @author Daniel Escoz Solana
+         * @author Pedro Morgado Alarc&oacute;n
+         */
+        /* package */final class ChunkTask extends RecursiveAction {
+
+            /** Generated by Eclipse */
+            private static final long serialVersionUID = -2231865311740468416L;
+
+            private final int from;
+            private final int to;
+
+            /* package */ChunkTask (final int from, final int to) {
+                this.from = from;
+                this.to = to;
             }
 
-            // Add the best (first)
-            output.add(Collections.min(tournament, sorter));
+            @Override
+            protected void compute () {
+                if (to - from == 1) {
+                    runChunk(from);
+                } else {
+                    final int mid = (from + to) >>> 1;
+                    invokeAll(new ChunkTask(from, mid), new ChunkTask(mid, to));
+                }
+            }
         }
     }
 }
@@ -0,0 +1,68 @@
+package pe1314.g11.sga;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+import pe1314.g11.SolverStep;
+import pe1314.g11.util.QuickSelect;
+
+/**
+ * A step that implements truncation selection: only the best <tt>mu</tt> chromosomes of the input survive, once each.
+ * <p>
+ * Unlike the other selection steps, the output has at most <tt>mu</tt> chromosomes, whatever the size of the input.
+ * The best ones are found with a {@link QuickSelect} over the known fitness values, so the step takes <tt>O(n)</tt>
+ * comparisons, and the survivors keep their relative order in the input.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
+public final class TruncationSelectionStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
+
+    /** Number of chromosomes that survive */
+    private final int mu;
+
+    /**
+     * @param mu Number of chromosomes that survive
+     */
+    public TruncationSelectionStep (final int mu) {
+        if (mu < 1) {
+            throw new IllegalArgumentException("invalid mu: " + mu);
+        }
+
+        this.mu = mu;
+    }
+
+    /** @return Number of chromosomes that survive */
+    public int getMu () {
+        return mu;
+    }
+
+    @Override
+    public
+        void apply (
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
+    {
+        final int len = input.size();
+        final int survivors = Math.min(mu, len);
+
+        final int[] positions = new int[len];
+        final double[] fitness = new double[len];
+        for (int i = 0; i < len; i++) {
+            positions[i] = i;
+            fitness[i] = input.fitness(i);
+        }
+
+        QuickSelect.selectBest(positions, survivors, fitness, problem.type());
+        Arrays.sort(positions, 0, survivors);
+
+        for (int i = 0; i < survivors; i++) {
+            output.add(input.get(positions[i]), fitness[positions[i]]);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package pe1314.g11.util;
+
+import java.util.Random;
+
+/**
+ * A table for sampling indices from a discrete distribution in constant time, using Walker's alias method.
+ * <p>
+ * The table is built in <tt>O(n)</tt> with Vose's algorithm. Every sample then takes a single random number: its
+ * integer part selects a column, and its fractional part chooses between the column and its alias. Tables are
+ * immutable, so they can be shared between threads.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class AliasTable {
+
+    /** Probability of keeping every column instead of taking its alias */
+    private final double[] probability;
+
+    /** Alias of every column */
+    private final int[] alias;
+
+    /**
+     * Builds a table in which every index is sampled with a probability proportional to its weight.
+     * 
+     * @param weights Weights of every index, which must be non-negative and have a positive, finite sum
+     * @throws IllegalArgumentException if the weights are not valid
+     */
+    public AliasTable (final double[] weights) {
+        final int n = weights.length;
+
+        double sum = 0;
+        for (final double weight : weights) {
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException("invalid weight: " + weight);
+            }
+            sum += weight;
+        }
+        if (!(sum > 0) || Double.isInfinite(sum)) {
+            throw new IllegalArgumentException("invalid sum of weights: " + sum);
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+
+        // Scale the weights so the average is 1, and split the columns in under and over full
+        final double[] scaled = new double[n];
+        final int[] small = new int[n];
+        final int[] large = new int[n];
+        int numSmall = 0;
+        int numLarge = 0;
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+            if (scaled[i] < 1.0) {
+                small[numSmall++] = i;
+            } else {
+                large[numLarge++] = i;
+            }
+        }
+
+        // Fill every small column with a piece of a large one
+        while (numSmall > 0 && numLarge > 0) {
+            final int less = small[--numSmall];
+            final int more = large[--numLarge];
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[numSmall++] = more;
+            } else {
+                large[numLarge++] = more;
+            }
+        }
+
+        // Whatever is left is full, save for rounding errors
+        while (numLarge > 0) {
+            final int more = large[--numLarge];
+            probability[more] = 1.0;
+            alias[more] = more;
+        }
+        while (numSmall > 0) {
+            final int less = small[--numSmall];
+            probability[less] = 1.0;
+            alias[less] = less;
+        }
+    }
+
+    /** @return Number of indices of this table */
+    public int size () {
+        return probability.length;
+    }
+
+    /**
+     * Samples an index from this table.
+     * 
+     * @param random The random generator to use
+     * @return An index between <tt>0</tt> and <tt>size() - 1</tt>, chosen with a probability proportional to its weight
+     */
+    public int sample (final Random random) {
+        final double u = random.nextDouble() * probability.length;
+        final int column = Math.min((int) u, probability.length - 1);
+        return (u - column < probability[column]) ? column : alias[column];
+    }
+}
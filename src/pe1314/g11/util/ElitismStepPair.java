@@ -1,18 +1,29 @@
 package pe1314.g11.util;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
-
+import pe1314.g11.StatefulStep;
+
+/**
+ * A pair of steps that implement elitism: the save step remembers the best chromosomes of its input, and the restore
+ * step puts them back in place of the worst chromosomes of its input.
+ * <p>
+ * Neither step sorts the population: the best and worst members are found with a {@link QuickSelect} over the known
+ * fitness values, so both steps take <tt>O(n)</tt> comparisons and leave the order of the population unchanged.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
 public final class ElitismStepPair<V, C extends Chromosome<C>> {
 
-    /** The elite saved by the save step */
-    /* protected */final List<C> elite = new ArrayList<C>();
+    /** The elite saved by the save step, with its fitness */
+    /* protected */Population<C> elite;
 
     /** Percent of chromosomes to be saved */
     /* protected */final double percent;
@@ -22,8 +33,8 @@ public final class ElitismStepPair<V, C extends Chromosome<C>> {
     }
 
     /**
-     * Returns a {@link ProblemStep} that saves the best chromosomes of the input population. The output is returned
-     * sorted as a side effect.
+     * Returns a {@link ProblemStep} that saves the best chromosomes of the input population. The output is the input,
+     * with the fitness of every member known. The saved elite is the state of this step on solver checkpoints.
      * 
      * @return The saving step of the elitism implementation
      */
@@ -33,7 +44,7 @@ public final class ElitismStepPair<V, C extends Chromosome<C>> {
 
     /**
      * Returns a {@ProbemStep} that resets the previously saved chromosomes to the output population,
-     * removing the worst of them. The output is returned partially sorted as a side effect.
+     * replacing the worst of them in place.
      * 
      * @return The restoring step of the elitism implementation
      */
@@ -41,27 +52,38 @@ public final class ElitismStepPair<V, C extends Chromosome<C>> {
         return new RestoreStep();
     }
 
-    private class SaveStep implements SolverStep<V,C> {
+    private class SaveStep implements StatefulStep<V,C> {
 
         /* package */SaveStep () {
         }
 
         @Override
         public void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
         {
             output.addAll(input);
-            Collections.sort(output, new FitnessComparator<C>(problem));
 
             final int eliteNum = (int) (output.size() * percent);
+            final int[] positions = positions(output);
+            QuickSelect.selectBest(positions, eliteNum, fitness(output), problem.type());
 
-            elite.clear();
+            elite = new Population<C>(problem, eliteNum);
             for (int i = 0; i < eliteNum; i++) {
-                elite.add(output.get(i));
+                elite.addFrom(output, positions[i]);
             }
         }
 
+        @Override
+        public Population<C> getState () {
+            return elite;
+        }
+
+        @Override
+        public void setState (final Population<C> state) {
+            elite = state;
+        }
+
     }
 
     private class RestoreStep implements SolverStep<V,C> {
@@ -71,18 +93,42 @@ public final class ElitismStepPair<V, C extends Chromosome<C>> {
 
         @Override
         public void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
         {
             output.addAll(input);
-            Collections.sort(output, new FitnessComparator<C>(problem));
 
-            final int eliteNum = (int) (output.size() * percent);
+            final int eliteNum = (elite == null) ? 0 : Math.min(elite.size(), (int) (output.size() * percent));
+            if (eliteNum == 0) {
+                return;
+            }
+
+            final int[] positions = positions(output);
+            QuickSelect.selectWorst(positions, eliteNum, fitness(output), problem.type());
 
+            // Replace the worst chromosomes, keeping the known fitness of the elite
             for (int i = 0; i < eliteNum; i++) {
-                output.set(output.size() - i - 1, elite.get(i));
+                output.set(positions[i], elite.get(i), elite.fitness(i));
             }
         }
 
     }
+
+    /** @return An array with every position of a population */
+    /* package */static int[] positions (final Population<?> population) {
+        final int[] positions = new int[population.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    /** @return An array with the fitness of every member of a population, evaluating the unknown ones */
+    /* package */static double[] fitness (final Population<?> population) {
+        final double[] fitness = new double[population.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = population.fitness(i);
+        }
+        return fitness;
+    }
 }
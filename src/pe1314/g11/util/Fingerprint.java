@@ -0,0 +1,54 @@
+package pe1314.g11.util;
+
+/**
+ * Functions to build 64-bit structural fingerprints of chromosomes.
+ * <p>
+ * A fingerprint starts from a seed and every structural element of the chromosome is {@link #add added} to it in
+ * order. Adding is a bijection on the added value, so two sequences that only differ in one element never collide, and
+ * every step is fully mixed, so fingerprints can be used directly as hash keys. Equal chromosomes must always have the
+ * same fingerprint, but since different chromosomes may collide, equality must still be checked when they match.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class Fingerprint {
+
+    /** Initial value of fingerprints, before adding any element */
+    public static final long SEED = 0x2545F4914F6CDD1DL;
+
+    /** Golden ratio increment, odd so multiplying by it is a bijection */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private Fingerprint () {
+    }
+
+    /**
+     * @param fingerprint Fingerprint of the previous elements
+     * @param value Next element
+     * @return Fingerprint of the previous elements followed by <tt>value</tt>
+     */
+    public static long add (final long fingerprint, final long value) {
+        return SplitMixRandom.mix(fingerprint * GOLDEN + value);
+    }
+
+    /**
+     * @param fingerprint Fingerprint of the previous elements
+     * @param string Next element
+     * @return Fingerprint of the previous elements followed by every character of <tt>string</tt> and its length
+     */
+    public static long add (final long fingerprint, final String string) {
+        long fp = fingerprint;
+        for (int i = 0; i < string.length(); i++) {
+            fp = add(fp, string.charAt(i));
+        }
+        return add(fp, string.length());
+    }
+
+    /**
+     * @param fingerprint A fingerprint
+     * @return A 32-bit hash code from all the bits of <tt>fingerprint</tt>
+     */
+    public static int hash (final long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+}
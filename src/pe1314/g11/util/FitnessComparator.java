@@ -8,7 +8,9 @@ import pe1314.g11.Problem;
 /**
  * A comparator that sorts chromosomes based on their fitness.
  * <p>
- * Objects of this class need a {@link Problem} instance to know with fitness function to use.
+ * Objects of this class need a {@link Problem} instance to know with fitness function to use. Fitness is evaluated on
+ * every comparison, so populations, which already know the fitness of their members, should be sorted with
+ * {@link FitnessSort} instead.
  * 
  * @author Daniel Escoz Solana
  * @author Pedro Morgado Alarc&oacute;n
@@ -24,8 +26,6 @@ public final class FitnessComparator<C extends Chromosome<C>> implements Compara
 
     @Override
     public int compare (final C c1, final C c2) {
-        final double f1 = problem.fitness(c1);
-        final double f2 = problem.fitness(c2);
-        return problem.type().getCompareMultiplier() * (int) Math.signum(f1 - f2);
+        return problem.type().compare(problem.fitness(c1), problem.fitness(c2));
     }
 }
@@ -0,0 +1,107 @@
+package pe1314.g11.util;
+
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+
+/**
+ * Sorting of populations by fitness without boxing or comparators.
+ * <p>
+ * Fitness values are read once and turned into <tt>long</tt> keys whose signed order is the order of the problem type,
+ * best first, so sorting only compares primitives. The result is a permutation of indices, sorted with a stable merge
+ * sort, so members with equal fitness keep their relative order, as with {@link java.util.Collections#sort}.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class FitnessSort {
+
+    /** Ranges up to this length are sorted by insertion */
+    private static final int INSERTION_LENGTH = 16;
+
+    private FitnessSort () {
+    }
+
+    /**
+     * Returns the positions of a population sorted so the best members come first, evaluating the unknown ones. The
+     * population is not modified.
+     * 
+     * @param population The population to sort
+     * @return The positions of <tt>population</tt>, best first
+     */
+    public static int[] order (final Population<?> population) {
+        final double[] fitness = new double[population.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = population.fitness(i);
+        }
+        return order(fitness, fitness.length, population.getProblem().type());
+    }
+
+    /**
+     * Returns the indices of the first <tt>length</tt> fitness values sorted so the best ones come first.
+     * 
+     * @param fitness Fitness values
+     * @param length Number of fitness values to sort
+     * @param type Type of the problem the fitness values belong to
+     * @return The indices of the fitness values, best first
+     */
+    public static int[] order (final double[] fitness, final int length, final Problem.Type type) {
+        final boolean reverse = type.getCompareMultiplier() < 0;
+
+        final long[] keys = new long[length];
+        final int[] order = new int[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = key(fitness[i], reverse);
+            order[i] = i;
+        }
+
+        final int[] buffer = new int[length];
+        sort(order, buffer, keys, 0, length);
+        return order;
+    }
+
+    /**
+     * @return A key whose signed order is the order of {@link Double#compare}, or its reverse
+     */
+    private static long key (final double value, final boolean reverse) {
+        final long bits = Double.doubleToLongBits(value);
+        final long key = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        return reverse ? ~key : key;
+    }
+
+    /** Sorts <tt>order[from, to)</tt> by the keys of its elements, using <tt>buffer</tt> as scratch space */
+    private static void sort (final int[] order, final int[] buffer, final long[] keys, final int from, final int to) {
+        if (to - from <= INSERTION_LENGTH) {
+            for (int i = from + 1; i < to; i++) {
+                final int idx = order[i];
+                final long key = keys[idx];
+                int j = i - 1;
+                while (j >= from && keys[order[j]] > key) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = idx;
+            }
+            return;
+        }
+
+        final int mid = (from + to) >>> 1;
+        sort(order, buffer, keys, from, mid);
+        sort(order, buffer, keys, mid, to);
+
+        // Already in order, nothing to merge
+        if (keys[order[mid - 1]] <= keys[order[mid]]) {
+            return;
+        }
+
+        System.arraycopy(order, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && keys[buffer[i]] <= keys[buffer[j]])) {
+                order[k] = buffer[i++];
+            } else {
+                order[k] = buffer[j++];
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package pe1314.g11.util;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+
+/**
+ * A binary heap of the positions of a {@link Population}, ordered by the fitness of the members at those positions.
+ * <p>
+ * The heap keeps track of where every position is stored, so when the member at a position is replaced, the heap can
+ * be fixed in <tt>O(log n)</tt> with {@link #update(int)}. Depending on how it is created, the top of the heap is
+ * either the best or the worst member of the population.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <C> Type of the chromosomes
+ */
+public final class IndexedHeap<C extends Chromosome<C>> {
+
+    /** The population whose positions are stored */
+    private final Population<C> population;
+
+    /** Whether the worst member is on top */
+    private final boolean worstFirst;
+
+    /** Heap of positions */
+    private int[] heap = new int[0];
+
+    /** Place on the heap of every position */
+    private int[] places = new int[0];
+
+    /**
+     * @param population Population whose positions are stored
+     * @param worstFirst Whether the top of the heap is the worst member instead of the best
+     */
+    public IndexedHeap (final Population<C> population, final boolean worstFirst) {
+        this.population = population;
+        this.worstFirst = worstFirst;
+    }
+
+    /**
+     * Rebuilds the heap with every position of the population, in <tt>O(n)</tt>.
+     */
+    public void build () {
+        final int size = population.size();
+        if (heap.length != size) {
+            heap = new int[size];
+            places = new int[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            heap[i] = i;
+            places[i] = i;
+        }
+
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /** @return The position on top of the heap */
+    public int peek () {
+        if (heap.length == 0) {
+            throw new IllegalStateException("empty heap");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Fixes the heap after the member at <tt>position</tt> has been replaced.
+     * 
+     * @param position Position of the population that changed
+     */
+    public void update (final int position) {
+        final int place = places[position];
+        if (siftUp(place) == place) {
+            siftDown(place);
+        }
+    }
+
+    /** @return Whether the member at <tt>i</tt> should be closer to the top than the member at <tt>j</tt> */
+    private boolean before (final int i, final int j) {
+        final int cmp = population.compare(i, j);
+        return worstFirst ? cmp > 0 : cmp < 0;
+    }
+
+    private int siftUp (final int place) {
+        int curr = place;
+        while (curr > 0) {
+            final int parent = (curr - 1) >>> 1;
+            if (!before(heap[curr], heap[parent])) {
+                break;
+            }
+            swap(curr, parent);
+            curr = parent;
+        }
+        return curr;
+    }
+
+    private void siftDown (final int place) {
+        int curr = place;
+        while (true) {
+            final int left = 2 * curr + 1;
+            if (left >= heap.length) {
+                return;
+            }
+
+            final int right = left + 1;
+            final int child = (right < heap.length && before(heap[right], heap[left])) ? right : left;
+            if (!before(heap[child], heap[curr])) {
+                return;
+            }
+
+            swap(curr, child);
+            curr = child;
+        }
+    }
+
+    private void swap (final int i, final int j) {
+        final int pi = heap[i];
+        final int pj = heap[j];
+        heap[i] = pj;
+        heap[j] = pi;
+        places[pj] = i;
+        places[pi] = j;
+    }
+}
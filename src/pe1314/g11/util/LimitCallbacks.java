@@ -0,0 +1,140 @@
+package pe1314.g11.util;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+import pe1314.g11.Solver;
+import pe1314.g11.SolverStep;
+import pe1314.g11.SolverTrace;
+
+/**
+ * Solver callbacks that stop the process after a number of generations, or after a number of generations without
+ * improving the best fitness, keeping track of the best chromosome seen.
+ * <p>
+ * All methods are meant to be called from the solver thread. Subclasses may override any method to be notified of
+ * other events, as long as they call the overridden method.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values of the solved problem
+ * @param <C> Type of the chromosomes to be processed
+ */
+public class LimitCallbacks<V, C extends Chromosome<C>> implements Solver.Callbacks<V,C> {
+
+    /** Maximum generations to run, or <tt>0</tt> for no limit */
+    private final int generations;
+
+    /** Maximum generations for the best fitness to be stalled, or <tt>0</tt> for no limit */
+    private final int stalled;
+
+    /** Type of the problem being solved */
+    private Problem.Type type;
+
+    /** Best chromosome seen */
+    private C best;
+
+    /** Fitness of the best chromosome seen */
+    private double bestFitness = Double.NaN;
+
+    /** Generation being processed */
+    private int currentGeneration;
+
+    /** Number of generations processed */
+    private int completedGenerations;
+
+    /** Number of generations without improvement */
+    private int currentStall;
+
+    /**
+     * @param generations Maximum generations to run, or <tt>0</tt> for no limit
+     * @param stalled Maximum generations for the best fitness to be stalled, or <tt>0</tt> for no limit
+     */
+    public LimitCallbacks (final int generations, final int stalled) {
+        if (generations < 0) {
+            throw new IllegalArgumentException("invalid generation limit: " + generations);
+        }
+        if (stalled < 0) {
+            throw new IllegalArgumentException("invalid stall limit: " + stalled);
+        }
+
+        this.generations = generations;
+        this.stalled = stalled;
+    }
+
+    @Override
+    public boolean shouldStop () {
+        if (generations > 0 && completedGenerations >= generations) {
+            return true;
+        }
+
+        return stalled > 0 && currentStall >= stalled;
+    }
+
+    @Override
+    public void startProcess (final Solver<V,C> solver) {
+        type = solver.getProblem().type();
+        best = null;
+        bestFitness = Double.NaN;
+        currentGeneration = 0;
+        completedGenerations = 0;
+        currentStall = 0;
+    }
+
+    @Override
+    public void startGeneration (final int gen, final Population<C> population) {
+        currentGeneration = gen;
+    }
+
+    @Override
+    public void startStep (final SolverStep<V,C> step, final Population<C> population) {
+    }
+
+    @Override
+    public void endStep (final Population<C> population) {
+    }
+
+    @Override
+    public void endGeneration (final Population<C> population) {
+        final int nextBest = population.best();
+
+        if (nextBest >= 0 && (best == null || type.compare(population.fitness(nextBest), bestFitness) < 0)) {
+            currentStall = 0;
+            best = population.get(nextBest);
+            bestFitness = population.fitness(nextBest);
+
+        } else {
+            currentStall++;
+        }
+
+        completedGenerations = currentGeneration + 1;
+    }
+
+    @Override
+    public void endProcess (final SolverTrace<V,C> trace) {
+    }
+
+    /** @return The best chromosome seen, or <tt>null</tt> if none was seen */
+    public C getBest () {
+        return best;
+    }
+
+    /** @return Fitness of the best chromosome seen, or <tt>NaN</tt> if none was seen */
+    public double getBestFitness () {
+        return bestFitness;
+    }
+
+    /** @return Number of the generation being processed, or the last one processed */
+    public int getCurrentGeneration () {
+        return currentGeneration;
+    }
+
+    /** @return Number of generations processed, including the ones before a resumed checkpoint */
+    public int getCompletedGenerations () {
+        return completedGenerations;
+    }
+
+    /** @return Number of generations processed without improving the best fitness */
+    public int getCurrentStall () {
+        return currentStall;
+    }
+}
@@ -0,0 +1,88 @@
+package pe1314.g11.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A sampler of the places of a chromosome mutated when every place is mutated with the same probability.
+ * <p>
+ * The number of places skipped before the next mutation follows a geometric distribution, so it is sampled directly
+ * from a single uniform number as <tt>floor(log(u) / log(1 - p))</tt>, and drawing the places of a chromosome takes a
+ * random number per mutated place instead of one per place. The places are drawn in ascending order into a buffer
+ * owned by the sampler, which grows as needed and is reused by every draw.
+ * <p>
+ * Objects of this class are not thread-safe.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class MutationPlaces {
+
+    private final double probability;
+
+    /** Logarithm of the probability of not mutating a place */
+    private final double logKeep;
+
+    /** Places drawn by the last call to {@link #draw} */
+    private int[] places = new int[16];
+
+    /**
+     * @param probability Probability of mutating every place
+     */
+    public MutationPlaces (final double probability) {
+        if (probability < 0.0 || probability > 1.0 || Double.isInfinite(probability) || Double.isNaN(probability)) {
+            throw new IllegalArgumentException("invalid probability: " + probability);
+        }
+
+        this.probability = probability;
+        this.logKeep = Math.log1p(-probability);
+    }
+
+    /** @return Probability of mutating every place */
+    public double getProbability () {
+        return probability;
+    }
+
+    /**
+     * Draws the mutated places of a chromosome, which are then available from {@link #getPlaces()}.
+     * 
+     * @param length Number of places of the chromosome
+     * @param random The random generator to use
+     * @return Number of mutated places
+     */
+    public int draw (final int length, final Random random) {
+        // Places are kept as long, as adding a long skip to an int place could overflow
+        int count = 0;
+        for (long place = skip(random); place < length; place += 1L + skip(random)) {
+            if (count == places.length) {
+                places = Arrays.copyOf(places, 2 * count);
+            }
+            places[count++] = (int) place;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the places drawn by the last call to {@link #draw}, in ascending order. The returned array is reused by
+     * the next draw, and only as many places as returned by the last draw are meaningful.
+     * 
+     * @return The last drawn places
+     */
+    public int[] getPlaces () {
+        return places;
+    }
+
+    /** @return Number of places to skip before the next mutation, or {@link Integer#MAX_VALUE} for none */
+    private int skip (final Random random) {
+        if (probability == 0.0) {
+            return Integer.MAX_VALUE;
+        }
+        if (probability == 1.0) {
+            return 0;
+        }
+
+        // 1 - nextDouble() is in (0, 1], so its logarithm is finite
+        final double skip = Math.floor(Math.log(1.0 - random.nextDouble()) / logKeep);
+        return (skip >= Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) skip;
+    }
+}
@@ -0,0 +1,59 @@
+package pe1314.g11.util;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
+import pe1314.g11.Problem;
+import pe1314.g11.SolverStep;
+
+/**
+ * A problem solver step that evaluates the fitness of the whole population in parallel, leaving it unchanged.
+ * <p>
+ * This step is meant to be placed after the steps that create new chromosomes (the generation step, and the last
+ * variation step of every generation) and before the first step that reads their fitness, such as the restoring of the
+ * elite or the selection. The fitness values are kept by the output {@link Population}, so the steps after this one,
+ * and the trace of the generation, read the precomputed values instead of evaluating them again on the solver thread.
+ * Members whose fitness is already known are not evaluated again, so a single instance can be used on several places
+ * of a pipeline. The problem being solved must be safe to evaluate from multiple threads.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @param <V> Type of the values
+ * @param <C> Type of the chromosomes
+ */
+public final class ParallelEvaluationStep<V, C extends Chromosome<C>> implements SolverStep<V,C> {
+
+    /** The pool in which fitness is evaluated */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an evaluation step that uses the {@link SharedPool shared pool}, with as many threads as available
+     * processors.
+     */
+    public ParallelEvaluationStep () {
+        this(SharedPool.get());
+    }
+
+    /**
+     * @param pool The pool in which fitness is evaluated
+     */
+    public ParallelEvaluationStep (final ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+
+        this.pool = pool;
+    }
+
+    @Override
+    public
+        void apply (
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
+    {
+        output.addAll(input);
+        output.evaluate(pool);
+    }
+}
@@ -0,0 +1,115 @@
+package pe1314.g11.util;
+
+import pe1314.g11.Problem;
+
+/**
+ * Partial selection of the best or worst positions of a population in expected linear time, without sorting it.
+ * <p>
+ * Positions are rearranged in place with a three-way quickselect over precomputed fitness values, so members with equal
+ * fitness do not degrade it to quadratic time. Pivots are chosen by median of three, so results are deterministic.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class QuickSelect {
+
+    private QuickSelect () {
+    }
+
+    /**
+     * Rearranges an array of positions so its first <tt>k</tt> elements are the positions of the <tt>k</tt> best
+     * fitness values, in no particular order.
+     * 
+     * @param positions Positions to rearrange, indices of <tt>fitness</tt>
+     * @param k Number of positions to select
+     * @param fitness Fitness of every position
+     * @param type Type of the problem the fitness values belong to
+     */
+    public static void selectBest (final int[] positions, final int k, final double[] fitness, final Problem.Type type)
+    {
+        select(positions, k, fitness, type, 1);
+    }
+
+    /**
+     * Rearranges an array of positions so its first <tt>k</tt> elements are the positions of the <tt>k</tt> worst
+     * fitness values, in no particular order.
+     * 
+     * @param positions Positions to rearrange, indices of <tt>fitness</tt>
+     * @param k Number of positions to select
+     * @param fitness Fitness of every position
+     * @param type Type of the problem the fitness values belong to
+     */
+    public static void selectWorst (final int[] positions, final int k, final double[] fitness, final Problem.Type type)
+    {
+        select(positions, k, fitness, type, -1);
+    }
+
+    /** Selects the <tt>k</tt> first positions, ordered by <tt>sign * type.compare</tt> */
+    private static void select (
+        final int[] positions, final int k, final double[] fitness, final Problem.Type type, final int sign)
+    {
+        if (k < 0 || k > positions.length) {
+            throw new IllegalArgumentException("invalid k: " + k);
+        }
+
+        int lo = 0;
+        int hi = positions.length - 1;
+
+        while (lo < hi && k > lo && k <= hi) {
+            final double pivot = fitness[positions[medianOfThree(positions, lo, hi, fitness, type, sign)]];
+
+            // Three-way partition: [lo, lt) before, [lt, gt] equal, (gt, hi] after the pivot
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                final int cmp = sign * type.compare(fitness[positions[i]], pivot);
+                if (cmp < 0) {
+                    swap(positions, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(positions, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+
+            // Continue on the side that contains the boundary
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt + 1) {
+                lo = gt + 1;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /** @return The index, among <tt>lo</tt>, <tt>hi</tt> and their middle, of the median of their fitness */
+    private static int medianOfThree (
+        final int[] positions, final int lo, final int hi, final double[] fitness, final Problem.Type type,
+        final int sign)
+    {
+        final int mid = (lo + hi) >>> 1;
+        final double a = fitness[positions[lo]];
+        final double b = fitness[positions[mid]];
+        final double c = fitness[positions[hi]];
+
+        if (sign * type.compare(a, b) < 0) {
+            if (sign * type.compare(b, c) < 0) {
+                return mid;
+            }
+            return (sign * type.compare(a, c) < 0) ? hi : lo;
+        }
+
+        if (sign * type.compare(a, c) < 0) {
+            return lo;
+        }
+        return (sign * type.compare(b, c) < 0) ? hi : mid;
+    }
+
+    private static void swap (final int[] positions, final int i, final int j) {
+        final int tmp = positions[i];
+        positions[i] = positions[j];
+        positions[j] = tmp;
+    }
+}
@@ -1,9 +1,9 @@
 package pe1314.g11.util;
 
-import java.util.List;
 import java.util.Random;
 
 import pe1314.g11.Chromosome;
+import pe1314.g11.Population;
 import pe1314.g11.Problem;
 import pe1314.g11.SolverStep;
 
@@ -36,8 +36,8 @@ public final class RandomGenerationStep<V, C extends Chromosome<C>> implements S
     @Override
     public
         void apply (
-            final Problem<V,C> problem, final List<C> input, final Random random, final int generation,
-            final List<C> output)
+            final Problem<V,C> problem, final Population<C> input, final Random random, final int generation,
+            final Population<C> output)
     {
         output.addAll(input);
 
@@ -0,0 +1,26 @@
+package pe1314.g11.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Holder of the fork-join pool shared by every parallel step that is not given a pool of its own, with as many threads
+ * as available processors. The pool is only created when first used.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public final class SharedPool {
+
+    private SharedPool () {
+    }
+
+    /** @return The shared pool */
+    public static ForkJoinPool get () {
+        return Holder.POOL;
+    }
+
+    /** Lazy holder of the shared pool */
+    private static final class Holder {
+        /* package */static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+}
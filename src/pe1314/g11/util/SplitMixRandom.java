@@ -0,0 +1,148 @@
+package pe1314.g11.util;
+
+import java.util.Random;
+
+/**
+ * Implementation of the SplitMix64 random number generator, which can be split into independent child generators.
+ * <p>
+ * The state is a single counter increased by a constant on every number, which is then scrambled, so generators are
+ * cheap to create and to derive from each other. Children are derived either by {@link #split() splitting}, which
+ * advances this generator, or by {@link #split(long) index}, which does not, so a family of streams (one per island,
+ * per chunk of work, ...) can be derived from a single seed and handed to any thread in any order, and the numbers of
+ * every stream only depend on the seed and the index. The most used methods are implemented directly instead of
+ * through {@link Random#next(int)}.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ * @see http://dx.doi.org/10.1145/2714064.2660195
+ */
+public final class SplitMixRandom extends Random {
+
+    /** Generated by Eclipse */
+    private static final long serialVersionUID = 5305627719591442516L;
+
+    /** Increment of the state on every number, the golden ratio as an odd 64-bit number */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /** Increment used to derive the children by index, so they are not positions of the stream of their parent */
+    private static final long STREAM = 0xD1B54A32D192ED03L;
+
+    /** Current random state */
+    private long state;
+
+    public SplitMixRandom () {
+        this(System.nanoTime());
+    }
+
+    public SplitMixRandom (final long seed) {
+        state = seed;
+    }
+
+    /**
+     * Returns a generator derived from another one. If <tt>random</tt> is a <tt>SplitMixRandom</tt>, it is
+     * {@link #split() split}, otherwise a single number is drawn from it to seed the new generator.
+     * 
+     * @param random Generator to derive from
+     * @return A new generator
+     */
+    public static SplitMixRandom from (final Random random) {
+        if (random instanceof SplitMixRandom) {
+            return ((SplitMixRandom) random).split();
+        }
+        return new SplitMixRandom(random.nextLong());
+    }
+
+    /**
+     * Returns a new generator independent from this one, advancing this one by a single number.
+     * 
+     * @return A new generator
+     */
+    public SplitMixRandom split () {
+        return new SplitMixRandom(nextLong());
+    }
+
+    /**
+     * Returns the generator of the <tt>index</tt>-th stream derived from the current state of this one, without
+     * advancing it. This method may be called from several threads at once, as long as this generator is not used.
+     * 
+     * @param index Index of the stream
+     * @return A new generator
+     */
+    public SplitMixRandom split (final long index) {
+        return new SplitMixRandom(mix(state ^ mix((index + 1) * STREAM)));
+    }
+
+    /**
+     * Returns the current state of this generator. A generator created with this state as its seed generates the same
+     * sequence of numbers as this one from now on.
+     * 
+     * @return The current state of this generator
+     */
+    public long getState () {
+        return state;
+    }
+
+    @Override
+    public void setSeed (final long seed) {
+        state = seed;
+    }
+
+    @Override
+    protected int next (final int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong () {
+        state += GOLDEN;
+        return mix(state);
+    }
+
+    @Override
+    public int nextInt () {
+        return (int) (nextLong() >>> 32);
+    }
+
+    @Override
+    public int nextInt (final int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        // Same algorithm as Random, with the 31 top bits of every number
+        int r = (int) (nextLong() >>> 33);
+        final int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+            // Reject the numbers of the last, incomplete range
+        }
+        return r;
+    }
+
+    @Override
+    public double nextDouble () {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public boolean nextBoolean () {
+        return nextLong() < 0;
+    }
+
+    /**
+     * Scrambles a number (the SplitMix64 finalizer). This function is a bijection, and every bit of the result depends
+     * on every bit of <tt>value</tt>.
+     * 
+     * @param value Number to scramble
+     * @return The scrambled number
+     */
+    public static long mix (final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -33,8 +33,18 @@ public final class XorShiftRandom extends Random {
         return (int) (state & ((1L << bits) - 1));
     }
 
+    /**
+     * Returns the current state of this generator. A generator created with this state as its seed generates the same
+     * sequence of numbers as this one from now on.
+     * 
+     * @return The current state of this generator
+     */
+    public long getState () {
+        return state;
+    }
+
     @Override
-    public synchronized void setSeed (final long seed) {
+    public void setSeed (final long seed) {
         if (seed == 0) {
             state = Long.MIN_VALUE;
         } else {
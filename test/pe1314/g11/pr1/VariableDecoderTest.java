@@ -0,0 +1,154 @@
+package pe1314.g11.pr1;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import pe1314.g11.sga.BinaryChromosome;
+import pe1314.g11.util.XorShiftRandom;
+
+/**
+ * Tests of {@link VariableDecoder}, checking the decoded values against the integers of
+ * {@link BinaryChromosome#toPartialBigInteger(int, int)}, and the Gray encoding against a decoding bit by bit.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public class VariableDecoderTest {
+
+    /** Bounds of the decoded variables */
+    private static final double MIN = -3.0;
+    private static final double MAX = 12.1;
+
+    @Test
+    public void decodesLikePartialBigInteger () {
+        final Random random = new XorShiftRandom(42);
+        for (int bits = 0; bits <= VariableDecoder.MAX_BITS; bits++) {
+            final VariableDecoder decoder = new VariableDecoder(0, bits, MIN, MAX);
+
+            for (int trial = 0; trial < 50; trial++) {
+                // Lengths and positions that cross the boundaries between words
+                final int first = random.nextInt(130);
+                final int length = first + bits + 1 + random.nextInt(70);
+                final BinaryChromosome chromo = BinaryChromosome.newRandom(length, random);
+
+                final long integer = chromo.toPartialBigInteger(first, bits).longValue();
+                assertEquals("bits " + bits + " at " + first, value(integer, bits), decoder.at(first).decode(chromo),
+                    0.0);
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsEveryShortInteger () {
+        // Every value of a variable decoded with a table, on a position that crosses two words
+        final int bits = 12;
+        final int first = 58;
+        final VariableDecoder decoder = new VariableDecoder(first, bits, MIN, MAX);
+
+        for (long integer = 0; integer < (1L << bits); integer++) {
+            final BinaryChromosome chromo = encode(integer, first, bits, first + bits + 5);
+            assertEquals(integer, chromo.toPartialBigInteger(first, bits).longValue());
+            assertEquals("integer " + integer, value(integer, bits), decoder.decode(chromo), 0.0);
+        }
+    }
+
+    @Test
+    public void roundTripsLongIntegers () {
+        final Random random = new XorShiftRandom(42);
+        for (final int bits : new int[] { VariableDecoder.TABLE_BITS + 1, 32, 40, VariableDecoder.MAX_BITS }) {
+            final VariableDecoder decoder = new VariableDecoder(0, bits, MIN, MAX);
+
+            for (int trial = 0; trial < 1000; trial++) {
+                final long integer = random.nextLong() >>> (64 - bits);
+                final int first = random.nextInt(64);
+                final BinaryChromosome chromo = encode(integer, first, bits, first + bits);
+
+                assertEquals(integer, chromo.toPartialBigInteger(first, bits).longValue());
+                assertEquals("integer " + integer, value(integer, bits), decoder.at(first).decode(chromo), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void decodesTheBounds () {
+        final int bits = 20;
+        final VariableDecoder decoder = new VariableDecoder(0, bits, MIN, MAX);
+        final double step = (MAX - MIN) / (1L << bits);
+
+        assertEquals(MIN, decoder.decode(encode(0, 0, bits, bits)), 0.0);
+        assertEquals(MAX - step, decoder.decode(encode((1L << bits) - 1, 0, bits, bits)), 1e-12);
+    }
+
+    @Test
+    public void grayMatchesNaiveLoop () {
+        for (long code = 0; code < (1L << 16); code++) {
+            assertEquals("code " + code, naiveGray(code), VariableDecoder.Encoding.GRAY.toInteger(code));
+        }
+
+        final Random random = new XorShiftRandom(42);
+        for (int trial = 0; trial < 100000; trial++) {
+            final long code = random.nextLong() >>> random.nextInt(64);
+            assertEquals("code " + code, naiveGray(code), VariableDecoder.Encoding.GRAY.toInteger(code));
+        }
+    }
+
+    @Test
+    public void grayInvertsTheEncoding () {
+        final Random random = new XorShiftRandom(42);
+        for (int trial = 0; trial < 100000; trial++) {
+            final long integer = random.nextLong() >>> 1;
+            assertEquals(integer, VariableDecoder.Encoding.GRAY.toInteger(integer ^ (integer >>> 1)));
+        }
+    }
+
+    @Test
+    public void decodesGrayLikePartialBigInteger () {
+        final Random random = new XorShiftRandom(42);
+        for (final int bits : new int[] { 1, 8, VariableDecoder.TABLE_BITS, 33, VariableDecoder.MAX_BITS }) {
+            final VariableDecoder decoder = new VariableDecoder(0, bits, MIN, MAX, VariableDecoder.Encoding.GRAY);
+
+            for (int trial = 0; trial < 1000; trial++) {
+                final int first = random.nextInt(130);
+                final BinaryChromosome chromo = BinaryChromosome.newRandom(first + bits, random);
+
+                final long code = chromo.toPartialBigInteger(first, bits).longValue();
+                assertEquals("bits " + bits + " at " + first, value(naiveGray(code), bits),
+                    decoder.at(first).decode(chromo), 0.0);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooManyBits () {
+        new VariableDecoder(0, VariableDecoder.MAX_BITS + 1, MIN, MAX);
+    }
+
+    /** @return The integer of a reflected Gray code, decoding one bit at a time from the highest one */
+    private static long naiveGray (final long code) {
+        long integer = 0;
+        long bit = 0;
+        for (int i = 63; i >= 0; i--) {
+            bit ^= (code >>> i) & 1L;
+            integer |= bit << i;
+        }
+        return integer;
+    }
+
+    /** @return The value the decoder should map an integer of <tt>bits</tt> bits to */
+    private static double value (final long integer, final int bits) {
+        return MIN + integer * ((MAX - MIN) / (1L << bits));
+    }
+
+    /** @return A chromosome of <tt>length</tt> bits with <tt>integer</tt> on its bits from <tt>first</tt> */
+    private static BinaryChromosome encode (final long integer, final int first, final int bits, final int length) {
+        final BitSet set = new BitSet(length);
+        for (int i = 0; i < bits; i++) {
+            set.set(first + i, ((integer >>> i) & 1L) != 0);
+        }
+        return new BinaryChromosome(length, set);
+    }
+}
@@ -0,0 +1,103 @@
+package pe1314.g11.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link AliasTable}, checking the sampling frequencies of every index against its weight.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public class AliasTableTest {
+
+    /** Number of samples drawn to measure the frequencies */
+    private static final int SAMPLES = 200000;
+
+    @Test
+    public void frequenciesFollowWeights () {
+        checkFrequencies(new double[] { 1.0, 0.0, 3.0, 6.0, 0.5, 9.5 });
+    }
+
+    @Test
+    public void frequenciesOfEqualWeights () {
+        checkFrequencies(new double[] { 2.0, 2.0, 2.0, 2.0, 2.0, 2.0, 2.0 });
+    }
+
+    @Test
+    public void frequenciesOfSkewedWeights () {
+        final double[] weights = new double[100];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (i + 1) * (i + 1);
+        }
+        checkFrequencies(weights);
+    }
+
+    @Test
+    public void singleIndex () {
+        final AliasTable table = new AliasTable(new double[] { 0.25 });
+        final Random random = new XorShiftRandom(1);
+
+        assertEquals(1, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, table.sample(random));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeWeights () {
+        new AliasTable(new double[] { 1.0, -1.0 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNaNWeights () {
+        new AliasTable(new double[] { 1.0, Double.NaN });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroSum () {
+        new AliasTable(new double[] { 0.0, 0.0 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInfiniteSum () {
+        new AliasTable(new double[] { 1.0, Double.POSITIVE_INFINITY });
+    }
+
+    /**
+     * Samples a table many times, and checks that indices with no weight are never drawn and every other one is drawn
+     * within five standard deviations of its expected count.
+     */
+    private static void checkFrequencies (final double[] weights) {
+        final AliasTable table = new AliasTable(weights);
+        assertEquals(weights.length, table.size());
+
+        final Random random = new XorShiftRandom(42);
+        final int[] counts = new int[weights.length];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        double sum = 0;
+        for (final double weight : weights) {
+            sum += weight;
+        }
+
+        for (int i = 0; i < weights.length; i++) {
+            final double p = weights[i] / sum;
+            if (p == 0.0) {
+                assertEquals("index " + i, 0, counts[i]);
+                continue;
+            }
+
+            final double expected = SAMPLES * p;
+            final double deviation = Math.sqrt(SAMPLES * p * (1.0 - p));
+            assertTrue("index " + i + ": " + counts[i] + " samples, " + expected + " expected",
+                Math.abs(counts[i] - expected) <= 5.0 * deviation);
+        }
+    }
+}
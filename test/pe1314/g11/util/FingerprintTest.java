@@ -0,0 +1,157 @@
+package pe1314.g11.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import pe1314.g11.sga.BinaryChromosome;
+import pe1314.g11.sga.PermutationChromosome;
+
+/**
+ * Tests of {@link Fingerprint} and of the fingerprints of the chromosomes built with it.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public class FingerprintTest {
+
+    @Test
+    public void sameSequenceSameFingerprint () {
+        final Random random = new XorShiftRandom(42);
+        final long[] values = randomValues(random, 50);
+        assertEquals(fingerprint(values), fingerprint(values.clone()));
+    }
+
+    @Test
+    public void addIsBijectiveOnTheValue () {
+        final Random random = new XorShiftRandom(42);
+        final long prefix = Fingerprint.add(Fingerprint.SEED, random.nextLong());
+
+        final Set<Long> seen = new HashSet<Long>();
+        for (long value = -50000; value < 50000; value++) {
+            assertTrue("collision on " + value, seen.add(Fingerprint.add(prefix, value)));
+        }
+    }
+
+    @Test
+    public void sequencesDifferingInOneElementNeverCollide () {
+        final Random random = new XorShiftRandom(42);
+        for (int trial = 0; trial < 1000; trial++) {
+            final long[] values = randomValues(random, 1 + random.nextInt(20));
+            final long[] changed = values.clone();
+            final int place = random.nextInt(values.length);
+            changed[place] += 1 + random.nextInt(Integer.MAX_VALUE);
+
+            assertNotEquals("trial " + trial, fingerprint(values), fingerprint(changed));
+        }
+    }
+
+    @Test
+    public void singleBitChangesAreMixed () {
+        final Random random = new XorShiftRandom(42);
+        long flipped = 0;
+        int trials = 0;
+        for (int trial = 0; trial < 200; trial++) {
+            final long fingerprint = random.nextLong();
+            final long value = random.nextLong();
+            final long base = Fingerprint.add(fingerprint, value);
+
+            for (int bit = 0; bit < 64; bit++) {
+                flipped += Long.bitCount(base ^ Fingerprint.add(fingerprint, value ^ (1L << bit)));
+                flipped += Long.bitCount(base ^ Fingerprint.add(fingerprint ^ (1L << bit), value));
+                trials += 2;
+            }
+        }
+
+        // Half of the 64 bits should change on average
+        final double average = (double) flipped / trials;
+        assertTrue("average flipped bits " + average, average > 31.0 && average < 33.0);
+    }
+
+    @Test
+    public void stringsAddTheirCharactersAndLength () {
+        final long expected =
+            Fingerprint.add(Fingerprint.add(Fingerprint.add(Fingerprint.SEED, 'a'), 'b'), 2);
+        assertEquals(expected, Fingerprint.add(Fingerprint.SEED, "ab"));
+
+        // The length separates strings that would otherwise add the same characters
+        assertNotEquals(
+            Fingerprint.add(Fingerprint.add(Fingerprint.SEED, "ab"), "c"),
+            Fingerprint.add(Fingerprint.add(Fingerprint.SEED, "a"), "bc"));
+        assertNotEquals(Fingerprint.SEED, Fingerprint.add(Fingerprint.SEED, ""));
+    }
+
+    @Test
+    public void hashUsesBothHalves () {
+        assertNotEquals(Fingerprint.hash(1L), Fingerprint.hash(1L << 32 | 1L));
+        assertEquals(0, Fingerprint.hash(0x1234567812345678L));
+    }
+
+    @Test
+    public void equalBinaryChromosomesHaveEqualFingerprints () {
+        final Random random = new XorShiftRandom(42);
+        for (int trial = 0; trial < 100; trial++) {
+            final int length = 1 + random.nextInt(300);
+            final BinaryChromosome chromo = BinaryChromosome.newRandom(length, random);
+
+            final BitSet bits = new BitSet(length);
+            for (int i = 0; i < length; i++) {
+                bits.set(i, chromo.getBit(i));
+            }
+            final BinaryChromosome copy = new BinaryChromosome(length, bits);
+            assertEquals(chromo, copy);
+            assertEquals(chromo.fingerprint(), copy.fingerprint());
+            assertEquals(chromo.hashCode(), copy.hashCode());
+
+            // Mutating a place twice gives back an equal chromosome, built from other words
+            final int place = random.nextInt(length);
+            final BinaryChromosome mutated = chromo.getMutated(0, place, 1);
+            assertNotEquals(chromo.fingerprint(), mutated.fingerprint());
+            assertEquals(chromo.fingerprint(), mutated.getMutated(0, place, 1).fingerprint());
+        }
+    }
+
+    @Test
+    public void equalPermutationChromosomesHaveEqualFingerprints () {
+        final Random random = new XorShiftRandom(42);
+        final List<Integer> permutation = new ArrayList<Integer>();
+        for (int i = 0; i < 30; i++) {
+            permutation.add(i);
+        }
+
+        for (int trial = 0; trial < 100; trial++) {
+            Collections.shuffle(permutation, random);
+            final PermutationChromosome chromo = new PermutationChromosome(permutation);
+            final PermutationChromosome copy = new PermutationChromosome(new ArrayList<Integer>(permutation));
+            assertEquals(chromo, copy);
+            assertEquals(chromo.fingerprint(), copy.fingerprint());
+        }
+    }
+
+    /** @return The fingerprint of a sequence of values */
+    private static long fingerprint (final long[] values) {
+        long fp = Fingerprint.SEED;
+        for (final long value : values) {
+            fp = Fingerprint.add(fp, value);
+        }
+        return fp;
+    }
+
+    private static long[] randomValues (final Random random, final int length) {
+        final long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextLong();
+        }
+        return values;
+    }
+}
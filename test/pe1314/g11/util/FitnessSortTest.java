@@ -0,0 +1,108 @@
+package pe1314.g11.util;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import pe1314.g11.Problem;
+
+/**
+ * Tests of {@link FitnessSort}, checking every order against the stable {@link Collections#sort} of the same indices.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public class FitnessSortTest {
+
+    /** Lengths around the insertion sort threshold and a large one that needs several merges */
+    private static final int[] LENGTHS = { 0, 1, 2, 15, 16, 17, 33, 1000 };
+
+    @Test
+    public void stableWithTiesMaximization () {
+        checkTies(Problem.Type.MAXIMIZATION);
+    }
+
+    @Test
+    public void stableWithTiesMinimization () {
+        checkTies(Problem.Type.MINIMIZATION);
+    }
+
+    @Test
+    public void specialValuesMaximization () {
+        checkSpecialValues(Problem.Type.MAXIMIZATION);
+    }
+
+    @Test
+    public void specialValuesMinimization () {
+        checkSpecialValues(Problem.Type.MINIMIZATION);
+    }
+
+    @Test
+    public void onlyTheGivenLength () {
+        final double[] fitness = { 3.0, 1.0, 2.0, 100.0, -100.0 };
+        assertArrayEquals(new int[] { 0, 2, 1 }, FitnessSort.order(fitness, 3, Problem.Type.MAXIMIZATION));
+        assertArrayEquals(new int[] { 1, 2, 0 }, FitnessSort.order(fitness, 3, Problem.Type.MINIMIZATION));
+    }
+
+    /** Sorts values with many repetitions, in runs already sorted, reversed and shuffled */
+    private static void checkTies (final Problem.Type type) {
+        final Random random = new XorShiftRandom(42);
+        for (final int length : LENGTHS) {
+            final double[] shuffled = new double[length];
+            final double[] ascending = new double[length];
+            final double[] descending = new double[length];
+            for (int i = 0; i < length; i++) {
+                shuffled[i] = random.nextInt(1 + length / 8) - length / 16;
+                ascending[i] = i / 4;
+                descending[i] = -i / 4;
+            }
+
+            check(shuffled, type);
+            check(ascending, type);
+            check(descending, type);
+        }
+    }
+
+    /** Sorts values that only {@link Double#compare} tells apart, or tells apart from others */
+    private static void checkSpecialValues (final Problem.Type type) {
+        final double[] special = {
+            0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE,
+            -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, 1.0, -1.0 };
+
+        final Random random = new XorShiftRandom(7);
+        final double[] fitness = new double[200];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = special[random.nextInt(special.length)];
+        }
+
+        check(fitness, type);
+    }
+
+    /** Checks the order of some fitness values against a stable sort with the comparison of the problem type */
+    private static void check (final double[] fitness, final Problem.Type type) {
+        final List<Integer> indices = new ArrayList<Integer>(fitness.length);
+        for (int i = 0; i < fitness.length; i++) {
+            indices.add(i);
+        }
+
+        Collections.sort(indices, new Comparator<Integer>() {
+            @Override
+            public int compare (final Integer i, final Integer j) {
+                return type.compare(fitness[i], fitness[j]);
+            }
+        });
+
+        final int[] expected = new int[fitness.length];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = indices.get(i);
+        }
+
+        assertArrayEquals(expected, FitnessSort.order(fitness, fitness.length, type));
+    }
+}
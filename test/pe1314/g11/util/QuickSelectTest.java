@@ -0,0 +1,107 @@
+package pe1314.g11.util;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import pe1314.g11.Problem;
+
+/**
+ * Tests of {@link QuickSelect}, checking every selection against a full sort of the same fitness values.
+ * 
+ * @author Daniel Escoz Solana
+ * @author Pedro Morgado Alarc&oacute;n
+ */
+public class QuickSelectTest {
+
+    /** Number of fitness values of every test */
+    private static final int LENGTH = 200;
+
+    @Test
+    public void selectBestMaximization () {
+        checkAllK(Problem.Type.MAXIMIZATION, true);
+    }
+
+    @Test
+    public void selectBestMinimization () {
+        checkAllK(Problem.Type.MINIMIZATION, true);
+    }
+
+    @Test
+    public void selectWorstMaximization () {
+        checkAllK(Problem.Type.MAXIMIZATION, false);
+    }
+
+    @Test
+    public void selectWorstMinimization () {
+        checkAllK(Problem.Type.MINIMIZATION, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeK () {
+        QuickSelect.selectBest(new int[] { 0, 1 }, -1, new double[] { 1.0, 2.0 }, Problem.Type.MAXIMIZATION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooLargeK () {
+        QuickSelect.selectBest(new int[] { 0, 1 }, 3, new double[] { 1.0, 2.0 }, Problem.Type.MAXIMIZATION);
+    }
+
+    /**
+     * Selects every possible <tt>k</tt> from values with many repetitions, and checks that the selected values are the
+     * first <tt>k</tt> of the sorted values and the positions are still a permutation.
+     */
+    private static void checkAllK (final Problem.Type type, final boolean best) {
+        final Random random = new XorShiftRandom(42);
+        final double[] fitness = new double[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            fitness[i] = random.nextInt(LENGTH / 4);
+        }
+
+        // Sorted from the first value to select to the last one
+        final double[] sorted = fitness.clone();
+        Arrays.sort(sorted);
+        if ((type == Problem.Type.MAXIMIZATION) == best) {
+            reverse(sorted);
+        }
+
+        final int[] identity = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            identity[i] = i;
+        }
+
+        for (int k = 0; k <= LENGTH; k++) {
+            final int[] positions = identity.clone();
+            if (best) {
+                QuickSelect.selectBest(positions, k, fitness, type);
+            } else {
+                QuickSelect.selectWorst(positions, k, fitness, type);
+            }
+
+            final double[] selected = new double[k];
+            for (int i = 0; i < k; i++) {
+                selected[i] = fitness[positions[i]];
+            }
+            Arrays.sort(selected);
+
+            final double[] expected = Arrays.copyOf(sorted, k);
+            Arrays.sort(expected);
+            assertArrayEquals(expected, selected, 0.0);
+
+            final int[] permutation = positions.clone();
+            Arrays.sort(permutation);
+            assertArrayEquals(identity, permutation);
+        }
+    }
+
+    private static void reverse (final double[] array) {
+        for (int i = 0, j = array.length - 1; i < j; i++, j--) {
+            final double tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+}